@@ -1,11 +1,36 @@
 package org.example.algorithms;
 
+import org.example.utils.ArrayUtils;
 import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 
 public class ClosestPair {
+    private static final int PARALLEL_THRESHOLD = 8192;
+    // AUTO crossover points, measured with AlgorithmsBenchmark: grid wins from ~1K spread-out
+    // points, but on near-collinear input the divide-and-conquer strips stay thin and it holds
+    // on until ~8K points
+    private static final int GRID_THRESHOLD = 1024;
+    private static final int GRID_THRESHOLD_DEGENERATE = 8192;
+    private static final int DENSITY_SAMPLE = 256;
+    private static final int DENSITY_BINS = 16;
+    // x order with y as tie-break, so every point's side of the split is decided by coordinates
+    private static final Comparator<Point> BY_X = Comparator.comparingDouble((Point p) -> p.x)
+        .thenComparingDouble(p -> p.y);
+    // Largest power-of-two int array length; grid cell tables are clamped to it
+    private static final int GRID_MAX_CAPACITY = 1 << 30;
+
+    public enum Strategy {
+        DIVIDE_AND_CONQUER,  // O(n log n) recursion over x-sorted points
+        GRID,                // randomized incremental grid hashing, expected O(n)
+        AUTO                 // picks one of the above from size and a density sample
+    }
 
     public static class Point {
         public final double x, y;
@@ -44,76 +69,339 @@ public class ClosestPair {
     }
 
     public static PointPair findClosestPair(Point[] points) {
+        return findClosestPair(points, Metrics.backend());
+    }
+
+    public static PointPair findClosestPair(Point[] points, MetricsBackend metrics) {
         if (points == null || points.length < 2) {
             throw new IllegalArgumentException("Need at least 2 points");
         }
 
         // Sort points by x-coordinate
         Point[] sortedByX = points.clone();
-        Arrays.sort(sortedByX, Comparator.comparingDouble(p -> p.x));
-        Metrics.incrementAllocations(points.length);
+        Arrays.sort(sortedByX, BY_X);
+        metrics.incrementAllocations(points.length);
 
         // Pre-sort by y-coordinate for strip operations
         Point[] sortedByY = points.clone();
         Arrays.sort(sortedByY, Comparator.comparingDouble(p -> p.y));
-        Metrics.incrementAllocations(points.length);
+        metrics.incrementAllocations(points.length);
+
+        return closestPairRec(sortedByX, sortedByY, 0, points.length - 1, metrics);
+    }
+
+    // The k closest pairs, nearest first. Same recursion as the SoA search, but the strip
+    // half-width is the k-th best distance so far, kept in a bounded max-heap of pairs.
+    public static PointPair[] findKClosestPairs(Point[] points, int k) {
+        return findKClosestPairs(points, k, Metrics.backend());
+    }
+
+    public static PointPair[] findKClosestPairs(Point[] points, int k, MetricsBackend metrics) {
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+        long maxPairs = (long) points.length * (points.length - 1) / 2;
+        if (k < 1 || k > maxPairs) {
+            throw new IllegalArgumentException("k must be between 1 and " + maxPairs);
+        }
+
+        KClosestSearch search = new KClosestSearch(xsOf(points), ysOf(points), k, metrics);
+        search.closestPairRec(0, points.length - 1);
+
+        // Draining the max-heap yields pairs farthest first, so fill the result from the back
+        PointPair[] result = new PointPair[k];
+        metrics.incrementAllocations(k);
+        for (int i = k - 1; i >= 0; i--) {
+            result[i] = new PointPair(points[search.ids[search.heapA[0]]], points[search.ids[search.heapB[0]]]);
+            search.poll();
+        }
+        return result;
+    }
+
+    // For every point, the index of its nearest other point
+    public static int[] allNearestNeighbors(Point[] points) {
+        return allNearestNeighbors(points, Metrics.backend());
+    }
+
+    public static int[] allNearestNeighbors(Point[] points, MetricsBackend metrics) {
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+        return allNearestNeighbors(xsOf(points), ysOf(points), metrics);
+    }
+
+    public static int[] allNearestNeighbors(double[] xs, double[] ys) {
+        return allNearestNeighbors(xs, ys, Metrics.backend());
+    }
+
+    public static int[] allNearestNeighbors(double[] xs, double[] ys, MetricsBackend metrics) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must be non-null and the same length");
+        }
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+
+        NearestNeighborSearch search = new NearestNeighborSearch(xs, ys, metrics);
+        search.closestPairRec(0, xs.length - 1);
+
+        // Translate x-order positions back to input indices
+        int[] result = new int[xs.length];
+        metrics.incrementAllocations(xs.length);
+        for (int pos = 0; pos < xs.length; pos++) {
+            result[search.ids[pos]] = search.ids[search.nearest[pos]];
+        }
+        return result;
+    }
+
+    private static double[] xsOf(Point[] points) {
+        double[] xs = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].x;
+        }
+        return xs;
+    }
+
+    private static double[] ysOf(Point[] points) {
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ys[i] = points[i].y;
+        }
+        return ys;
+    }
+
+    // Parallel variant: the x and y presorts run concurrently, and the two recursive halves are
+    // forked while a range holds more than sequentialThreshold points. Splitting by y and the
+    // strip scan stay sequential per level; they are linear and touch the whole range.
+    public static PointPair findClosestPairParallel(Point[] points) {
+        return findClosestPairParallel(points, ForkJoinPool.commonPool());
+    }
+
+    public static PointPair findClosestPairParallel(Point[] points, ForkJoinPool pool) {
+        return findClosestPairParallel(points, pool, PARALLEL_THRESHOLD, Metrics.backend());
+    }
+
+    public static PointPair findClosestPairParallel(Point[] points, ForkJoinPool pool, int sequentialThreshold,
+                                                    MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= 3) {
+            throw new IllegalArgumentException("Sequential threshold must exceed 3");
+        }
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+
+        Point[] sortedByX = points.clone();
+        Point[] sortedByY = points.clone();
+        metrics.incrementAllocations(2L * points.length);
+
+        pool.invoke(new PresortTask(sortedByX, sortedByY));
+
+        return pool.invoke(new ClosestPairTask(sortedByX, sortedByY, 0, points.length - 1,
+            sequentialThreshold, metrics));
+    }
+
+    // Structure-of-arrays entry point for very large inputs: no Point objects, index arrays only.
+    // Returns the indices {i, j} (i < j) of the closest pair in xs/ys. All scratch is allocated
+    // up front, distances are compared squared, and the recursion itself allocates nothing.
+    public static int[] findClosestPair(double[] xs, double[] ys) {
+        return findClosestPair(xs, ys, Metrics.backend());
+    }
+
+    public static int[] findClosestPair(double[] xs, double[] ys, MetricsBackend metrics) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must be non-null and the same length");
+        }
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+
+        ClosestSearch search = new ClosestSearch(xs, ys, metrics);
+        search.closestPairRec(0, xs.length - 1);
+
+        int a = search.ids[search.bestA];
+        int b = search.ids[search.bestB];
+        return new int[]{Math.min(a, b), Math.max(a, b)};
+    }
+
+    public static PointPair findClosestPair(Point[] points, Strategy strategy) {
+        return findClosestPair(points, strategy, Metrics.backend());
+    }
+
+    public static PointPair findClosestPair(Point[] points, Strategy strategy, MetricsBackend metrics) {
+        if (strategy == Strategy.DIVIDE_AND_CONQUER) {
+            return findClosestPair(points, metrics);
+        }
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+        int[] pair = findClosestPair(xsOf(points), ysOf(points), strategy, metrics);
+        return new PointPair(points[pair[0]], points[pair[1]]);
+    }
 
-        return closestPairRec(sortedByX, sortedByY, 0, points.length - 1);
+    public static int[] findClosestPair(double[] xs, double[] ys, Strategy strategy) {
+        return findClosestPair(xs, ys, strategy, Metrics.backend());
     }
 
-    private static PointPair closestPairRec(Point[] byX, Point[] byY, int left, int right) {
-        Metrics.incrementDepth();
+    public static int[] findClosestPair(double[] xs, double[] ys, Strategy strategy, MetricsBackend metrics) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException("Coordinate arrays must be non-null and the same length");
+        }
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+
+        if (strategy == Strategy.GRID || (strategy == Strategy.AUTO && preferGrid(xs, ys))) {
+            GridSearch search = new GridSearch(xs, ys, metrics);
+            search.run();
+            return new int[]{Math.min(search.bestA, search.bestB), Math.max(search.bestA, search.bestB)};
+        }
+        return findClosestPair(xs, ys, metrics);
+    }
+
+    private static PointPair closestPairRec(Point[] byX, Point[] byY, int left, int right,
+                                            MetricsBackend metrics) {
+        metrics.incrementDepth();
 
         try {
             int n = right - left + 1;
 
             // Base case: brute force for small arrays
             if (n <= 3) {
-                return bruteForceClosest(byX, left, right);
+                return bruteForceClosest(byX, left, right, metrics);
             }
 
             // Divide
             int mid = left + (right - left) / 2;
-            Point midPoint = byX[mid];
+            Point[][] halves = splitByY(byX, byY, left, mid, right, metrics);
+
+            // Conquer: find closest pairs in left and right halves
+            PointPair leftClosest = closestPairRec(byX, halves[0], left, mid, metrics);
+            PointPair rightClosest = closestPairRec(byX, halves[1], mid + 1, right, metrics);
 
-            // Split points by y-coordinate for recursive calls
-            Point[] leftByY = new Point[mid - left + 1];
-            Point[] rightByY = new Point[right - mid];
-            Metrics.incrementAllocations(leftByY.length + rightByY.length);
+            return combine(byY, byX[mid].x, leftClosest, rightClosest, metrics);
 
-            int leftIdx = 0, rightIdx = 0;
-            for (Point p : byY) {
-                if (p.x <= midPoint.x && leftIdx < leftByY.length) {
-                    leftByY[leftIdx++] = p;
-                } else if (rightIdx < rightByY.length) {
-                    rightByY[rightIdx++] = p;
-                }
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    // Splits the y-sorted points of byX[left..right] into the y-sorted halves byX[left..mid] and
+    // byX[mid+1..right]. Points sharing x are told apart by BY_X's y tie-break; exact copies of
+    // the mid point are interchangeable, so as many as byX[left..mid] holds go left.
+    private static Point[][] splitByY(Point[] byX, Point[] byY, int left, int mid, int right,
+                                      MetricsBackend metrics) {
+        Point midPoint = byX[mid];
+        Point[] leftByY = new Point[mid - left + 1];
+        Point[] rightByY = new Point[right - mid];
+        metrics.incrementAllocations(leftByY.length + rightByY.length);
+
+        int copiesLeft = 0;
+        for (int i = mid; i >= left && BY_X.compare(byX[i], midPoint) == 0; i--) {
+            copiesLeft++;
+        }
+
+        int leftIdx = 0, rightIdx = 0;
+        for (Point p : byY) {
+            int side = BY_X.compare(p, midPoint);
+            if (side < 0 || (side == 0 && copiesLeft-- > 0)) {
+                leftByY[leftIdx++] = p;
+            } else {
+                rightByY[rightIdx++] = p;
             }
+        }
+        return new Point[][]{leftByY, rightByY};
+    }
 
-            // Conquer: find closest pairs in left and right halves
-            PointPair leftClosest = closestPairRec(byX, leftByY, left, mid);
-            PointPair rightClosest = closestPairRec(byX, rightByY, mid + 1, right);
+    // The closer of the two halves' answers, improved by any pair straddling the dividing line
+    private static PointPair combine(Point[] byY, double midX, PointPair leftClosest, PointPair rightClosest,
+                                     MetricsBackend metrics) {
+        // Find the closer of the two
+        PointPair closest = (leftClosest.distance <= rightClosest.distance) ? leftClosest : rightClosest;
 
-            // Find the closer of the two
-            PointPair closest = (leftClosest.distance <= rightClosest.distance) ? leftClosest : rightClosest;
+        // Check strip around the dividing line
+        PointPair stripClosest = closestInStrip(byY, midX, closest.distance, metrics);
 
-            // Check strip around the dividing line
-            PointPair stripClosest = closestInStrip(byY, midPoint.x, closest.distance);
+        return (stripClosest != null && stripClosest.distance < closest.distance) ? stripClosest : closest;
+    }
 
-            return (stripClosest != null && stripClosest.distance < closest.distance) ? stripClosest : closest;
+    private static final class PresortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-        } finally {
-            Metrics.decrementDepth();
+        private final Point[] byX, byY;
+
+        PresortTask(Point[] byX, Point[] byY) {
+            this.byX = byX;
+            this.byY = byY;
+        }
+
+        @Override
+        protected void compute() {
+            RecursiveAction sortY = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Arrays.sort(byY, Comparator.comparingDouble(p -> p.y));
+                }
+            };
+            sortY.fork();
+            Arrays.sort(byX, BY_X);
+            sortY.join();
+        }
+    }
+
+    private static final class ClosestPairTask extends RecursiveTask<PointPair> {
+        private static final long serialVersionUID = 1L;
+
+        private final Point[] byX, byY;
+        private final int left, right, threshold;
+        private final MetricsBackend metrics;
+
+        ClosestPairTask(Point[] byX, Point[] byY, int left, int right, int threshold, MetricsBackend metrics) {
+            this.byX = byX;
+            this.byY = byY;
+            this.left = left;
+            this.right = right;
+            this.threshold = threshold;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected PointPair compute() {
+            if (right - left + 1 <= threshold) {
+                return closestPairRec(byX, byY, left, right, metrics);
+            }
+
+            metrics.incrementDepth();
+            try {
+                int mid = left + (right - left) / 2;
+                Point[][] halves = splitByY(byX, byY, left, mid, right, metrics);
+
+                // The halves share only the read-only byX array, so they can run concurrently
+                MetricsBackend leftMetrics = metrics.fork();
+                MetricsBackend rightMetrics = metrics.fork();
+                ClosestPairTask leftTask = new ClosestPairTask(byX, halves[0], left, mid, threshold, leftMetrics);
+                ClosestPairTask rightTask = new ClosestPairTask(byX, halves[1], mid + 1, right, threshold,
+                    rightMetrics);
+                invokeAll(leftTask, rightTask);
+                metrics.join(leftMetrics);
+                metrics.join(rightMetrics);
+
+                return combine(byY, byX[mid].x, leftTask.join(), rightTask.join(), metrics);
+            } finally {
+                metrics.decrementDepth();
+            }
         }
     }
 
-    private static PointPair bruteForceClosest(Point[] points, int left, int right) {
+    private static PointPair bruteForceClosest(Point[] points, int left, int right, MetricsBackend metrics) {
         PointPair closest = null;
         double minDistance = Double.MAX_VALUE;
 
         for (int i = left; i <= right; i++) {
             for (int j = i + 1; j <= right; j++) {
-                Metrics.incrementComparisons();
+                metrics.incrementComparisons();
                 double distance = points[i].distanceTo(points[j]);
                 if (distance < minDistance) {
                     minDistance = distance;
@@ -125,7 +413,8 @@ public class ClosestPair {
         return closest;
     }
 
-    private static PointPair closestInStrip(Point[] sortedByY, double midX, double delta) {
+    private static PointPair closestInStrip(Point[] sortedByY, double midX, double delta,
+                                            MetricsBackend metrics) {
         // Create strip of points within delta distance from midline
         Point[] strip = new Point[sortedByY.length];
         int stripSize = 0;
@@ -138,7 +427,7 @@ public class ClosestPair {
 
         if (stripSize < 2) return null;
 
-        Metrics.incrementAllocations(stripSize);
+        metrics.incrementAllocations(stripSize);
 
         PointPair closest = null;
         double minDistance = delta;
@@ -146,7 +435,7 @@ public class ClosestPair {
         // Check each point against at most 7 neighbors
         for (int i = 0; i < stripSize; i++) {
             for (int j = i + 1; j < stripSize && (strip[j].y - strip[i].y) < minDistance; j++) {
-                Metrics.incrementComparisons();
+                metrics.incrementComparisons();
                 double distance = strip[i].distanceTo(strip[j]);
                 if (distance < minDistance) {
                     minDistance = distance;
@@ -158,6 +447,504 @@ public class ClosestPair {
         return closest;
     }
 
+    // State of one SoA search. Points are renumbered by x order: position i holds px[i], py[i]
+    // and came from input index ids[i]. byY[left..right] is made y-sorted on the way back up
+    // the recursion by merging the halves, so no separate y presort or per-level split is needed.
+    // Subclasses decide what a candidate pair updates and how the strip is scanned.
+    private abstract static class SoaSearch {
+        final double[] px, py;
+        final int[] ids;
+        final int[] byY, scratch, strip;
+        final MetricsBackend metrics;
+
+        SoaSearch(double[] xs, double[] ys, MetricsBackend metrics) {
+            int n = xs.length;
+            this.metrics = metrics;
+
+            // Sort x keys with the input indices as payload
+            px = xs.clone();
+            ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i;
+            }
+            MergeSort.sort(px, ids, metrics);
+
+            py = new double[n];
+            byY = new int[n];
+            scratch = new int[n];
+            strip = new int[n];
+            for (int i = 0; i < n; i++) {
+                py[i] = ys[ids[i]];
+                byY[i] = i;
+            }
+            metrics.incrementAllocations(6L * n);
+        }
+
+        // Offers the pair of positions a and b with squared distance distSq
+        abstract void offer(int a, int b, double distSq);
+
+        // Offers the pairs straddling midX that could still improve the answer. byY[left..right]
+        // is y-sorted; positions up to mid are in the left half.
+        abstract void closestInStrip(int left, int mid, int right, double midX);
+
+        void closestPairRec(int left, int right) {
+            metrics.incrementDepth();
+
+            try {
+                // Base case: brute force, then order the few positions by y
+                if (right - left + 1 <= 3) {
+                    bruteForceClosest(left, right);
+                    sortByY(left, right);
+                    return;
+                }
+
+                int mid = left + (right - left) / 2;
+                double midX = px[mid];
+
+                closestPairRec(left, mid);
+                closestPairRec(mid + 1, right);
+                mergeByY(left, mid, right);
+                closestInStrip(left, mid, right, midX);
+
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+
+        final double distSq(int a, int b) {
+            double dx = px[a] - px[b];
+            double dy = py[a] - py[b];
+            return dx * dx + dy * dy;
+        }
+
+        private void bruteForceClosest(int left, int right) {
+            for (int i = left; i <= right; i++) {
+                for (int j = i + 1; j <= right; j++) {
+                    offer(i, j, distSq(i, j));
+                }
+            }
+            metrics.incrementComparisons((long) (right - left + 1) * (right - left) / 2);
+        }
+
+        private void sortByY(int left, int right) {
+            for (int i = left + 1; i <= right; i++) {
+                int pos = byY[i];
+                int j = i - 1;
+                while (j >= left && py[byY[j]] > py[pos]) {
+                    byY[j + 1] = byY[j];
+                    j--;
+                }
+                byY[j + 1] = pos;
+            }
+        }
+
+        private void mergeByY(int left, int mid, int right) {
+            int i = left, j = mid + 1, k = left;
+            while (i <= mid && j <= right) {
+                scratch[k++] = py[byY[j]] < py[byY[i]] ? byY[j++] : byY[i++];
+            }
+            while (i <= mid) scratch[k++] = byY[i++];
+            while (j <= right) scratch[k++] = byY[j++];
+            System.arraycopy(scratch, left, byY, left, right - left + 1);
+            metrics.incrementComparisons(right - left);
+        }
+    }
+
+    // Searches whose answer gives one distance bound for every point: the strip is the band
+    // within that bound of the midline
+    private abstract static class BoundedSearch extends SoaSearch {
+
+        BoundedSearch(double[] xs, double[] ys, MetricsBackend metrics) {
+            super(xs, ys, metrics);
+        }
+
+        // Squared strip half-width: pairs at least this far apart cannot improve the answer
+        abstract double boundSq();
+
+        @Override
+        void closestInStrip(int left, int mid, int right, double midX) {
+            // Positions within the current bound of the midline, in y order
+            int stripSize = 0;
+            for (int k = left; k <= right; k++) {
+                double dx = px[byY[k]] - midX;
+                if (dx * dx < boundSq()) {
+                    strip[stripSize++] = byY[k];
+                }
+            }
+
+            // Pairs within one half were already offered by the recursion, so only pairs
+            // straddling the midline are new (the k-closest heap must not see duplicates)
+            long comparisons = 0;
+            for (int i = 0; i < stripSize; i++) {
+                int a = strip[i];
+                boolean leftSide = a <= mid;
+                for (int j = i + 1; j < stripSize; j++) {
+                    double dy = py[strip[j]] - py[a];
+                    if (dy * dy >= boundSq()) break;
+                    if ((strip[j] <= mid) != leftSide) {
+                        comparisons++;
+                        offer(a, strip[j], distSq(a, strip[j]));
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+        }
+    }
+
+    // Single closest pair
+    private static final class ClosestSearch extends BoundedSearch {
+        double bestDistSq = Double.POSITIVE_INFINITY;
+        int bestA, bestB;
+
+        ClosestSearch(double[] xs, double[] ys, MetricsBackend metrics) {
+            super(xs, ys, metrics);
+        }
+
+        @Override
+        void offer(int a, int b, double distSq) {
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                bestA = a;
+                bestB = b;
+            }
+        }
+
+        @Override
+        double boundSq() {
+            return bestDistSq;
+        }
+    }
+
+    // k closest pairs in a bounded binary max-heap keyed by squared distance; the root is the
+    // k-th best so far and bounds the strip once the heap is full
+    private static final class KClosestSearch extends BoundedSearch {
+        final double[] heapDist;
+        final int[] heapA, heapB;
+        int size;
+
+        KClosestSearch(double[] xs, double[] ys, int k, MetricsBackend metrics) {
+            super(xs, ys, metrics);
+            heapDist = new double[k];
+            heapA = new int[k];
+            heapB = new int[k];
+            metrics.incrementAllocations(3L * k);
+        }
+
+        @Override
+        void offer(int a, int b, double distSq) {
+            if (size < heapDist.length) {
+                // Sift the new pair up from the end
+                int i = size++;
+                while (i > 0 && heapDist[(i - 1) / 2] < distSq) {
+                    move((i - 1) / 2, i);
+                    i = (i - 1) / 2;
+                }
+                set(i, a, b, distSq);
+            } else if (distSq < heapDist[0]) {
+                siftDown(a, b, distSq);
+            }
+        }
+
+        @Override
+        double boundSq() {
+            return size < heapDist.length ? Double.POSITIVE_INFINITY : heapDist[0];
+        }
+
+        // Removes the root (the farthest retained pair)
+        void poll() {
+            size--;
+            if (size > 0) {
+                siftDown(heapA[size], heapB[size], heapDist[size]);
+            }
+        }
+
+        // Places the pair at the root and sifts it down to restore heap order
+        private void siftDown(int a, int b, double distSq) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heapDist[child + 1] > heapDist[child]) {
+                    child++;
+                }
+                if (heapDist[child] <= distSq) break;
+                move(child, i);
+                i = child;
+            }
+            set(i, a, b, distSq);
+        }
+
+        private void move(int from, int to) {
+            set(to, heapA[from], heapB[from], heapDist[from]);
+        }
+
+        private void set(int i, int a, int b, double distSq) {
+            heapA[i] = a;
+            heapB[i] = b;
+            heapDist[i] = distSq;
+        }
+    }
+
+    // Nearest neighbor of every point. Each point has its own radius, so the strip holds every
+    // point within the largest radius of any point that could still improve, and each such point
+    // scans both ways in y order against points from the other half only.
+    private static final class NearestNeighborSearch extends SoaSearch {
+        final double[] nearestDistSq;
+        final int[] nearest;
+
+        NearestNeighborSearch(double[] xs, double[] ys, MetricsBackend metrics) {
+            super(xs, ys, metrics);
+            nearestDistSq = new double[xs.length];
+            nearest = new int[xs.length];
+            Arrays.fill(nearestDistSq, Double.POSITIVE_INFINITY);
+            metrics.incrementAllocations(2L * xs.length);
+        }
+
+        @Override
+        void offer(int a, int b, double distSq) {
+            if (distSq < nearestDistSq[a]) {
+                nearestDistSq[a] = distSq;
+                nearest[a] = b;
+            }
+            if (distSq < nearestDistSq[b]) {
+                nearestDistSq[b] = distSq;
+                nearest[b] = a;
+            }
+        }
+
+        @Override
+        void closestInStrip(int left, int mid, int right, double midX) {
+            double maxRadiusSq = 0;
+            for (int k = left; k <= right; k++) {
+                int p = byY[k];
+                double dx = px[p] - midX;
+                if (dx * dx < nearestDistSq[p]) {
+                    maxRadiusSq = Math.max(maxRadiusSq, nearestDistSq[p]);
+                }
+            }
+
+            int stripSize = 0;
+            for (int k = left; k <= right; k++) {
+                double dx = px[byY[k]] - midX;
+                if (dx * dx < maxRadiusSq) {
+                    strip[stripSize++] = byY[k];
+                }
+            }
+
+            long comparisons = 0;
+            for (int i = 0; i < stripSize; i++) {
+                int a = strip[i];
+                double dx = px[a] - midX;
+                if (dx * dx >= nearestDistSq[a]) continue;
+                boolean leftSide = a <= mid;
+
+                for (int j = i + 1; j < stripSize; j++) {
+                    double dy = py[strip[j]] - py[a];
+                    if (dy * dy >= nearestDistSq[a]) break;
+                    if ((strip[j] <= mid) != leftSide) {
+                        comparisons++;
+                        offer(a, strip[j], distSq(a, strip[j]));
+                    }
+                }
+                for (int j = i - 1; j >= 0; j--) {
+                    double dy = py[a] - py[strip[j]];
+                    if (dy * dy >= nearestDistSq[a]) break;
+                    if ((strip[j] <= mid) != leftSide) {
+                        comparisons++;
+                        offer(a, strip[j], distSq(a, strip[j]));
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+        }
+    }
+
+    // Randomized incremental grid (Rabin; Golin, Raman, Schwarz and Smid). Points are inserted
+    // in random order into a hash of square cells whose side is the closest distance so far,
+    // so a new point only needs the 3x3 cells around it and each cell holds at most 4 points.
+    // When a new point beats the distance, the grid is rebuilt from the points inserted so far;
+    // that happens at step i with probability at most 2/i, so the expected total work is O(n).
+    // Cells live in a primitive open-addressing table; bumping an epoch empties it in O(1).
+    private static final class GridSearch {
+        final double[] qx, qy;
+        final int[] ids;
+        final int[] next;  // next point in the same cell, -1 terminated
+        final long[] cellX, cellY;
+        final int[] head, epochOf;
+        final int mask;
+        final MetricsBackend metrics;
+
+        int epoch;
+        double cellSize;
+        double bestDistSq;
+        int bestA, bestB;
+
+        GridSearch(double[] xs, double[] ys, MetricsBackend metrics) {
+            int n = xs.length;
+            this.metrics = metrics;
+
+            // Random insertion order, with coordinates copied so the scan stays sequential
+            ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i;
+            }
+            ArrayUtils.shuffle(ids);
+            qx = new double[n];
+            qy = new double[n];
+            for (int i = 0; i < n; i++) {
+                qx[i] = xs[ids[i]];
+                qy[i] = ys[ids[i]];
+            }
+
+            int capacity = gridCapacity(n);
+            mask = capacity - 1;
+            cellX = new long[capacity];
+            cellY = new long[capacity];
+            head = new int[capacity];
+            epochOf = new int[capacity];
+            next = new int[n];
+            metrics.incrementAllocations(4L * n + 4L * capacity);
+        }
+
+        void run() {
+            int n = qx.length;
+            long comparisons = 1;
+            setBest(0, 1, distSq(0, 1));
+            rebuild(1);
+
+            for (int i = 2; i < n && bestDistSq > 0; i++) {
+                long cx = cell(qx[i]);
+                long cy = cell(qy[i]);
+                boolean improved = false;
+
+                for (long dx = -1; dx <= 1; dx++) {
+                    for (long dy = -1; dy <= 1; dy++) {
+                        for (int j = lookup(cx + dx, cy + dy); j >= 0; j = next[j]) {
+                            comparisons++;
+                            double d = distSq(i, j);
+                            if (d < bestDistSq) {
+                                setBest(i, j, d);
+                                improved = true;
+                            }
+                        }
+                    }
+                }
+
+                if (improved) {
+                    rebuild(i);
+                } else {
+                    insert(i, cx, cy);
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+        }
+
+        private void setBest(int a, int b, double distSq) {
+            bestDistSq = distSq;
+            bestA = ids[a];
+            bestB = ids[b];
+        }
+
+        // Empties the table and reinserts points 0..last with cells sized to the current distance
+        private void rebuild(int last) {
+            if (bestDistSq == 0) return;
+            cellSize = Math.sqrt(bestDistSq);
+            epoch++;
+            for (int i = 0; i <= last; i++) {
+                insert(i, cell(qx[i]), cell(qy[i]));
+            }
+        }
+
+        private long cell(double coordinate) {
+            return (long) Math.floor(coordinate / cellSize);
+        }
+
+        private void insert(int point, long cx, long cy) {
+            int slot = slot(cx, cy);
+            while (epochOf[slot] == epoch && (cellX[slot] != cx || cellY[slot] != cy)) {
+                slot = (slot + 1) & mask;
+            }
+            if (epochOf[slot] != epoch) {
+                epochOf[slot] = epoch;
+                cellX[slot] = cx;
+                cellY[slot] = cy;
+                head[slot] = -1;
+            }
+            next[point] = head[slot];
+            head[slot] = point;
+        }
+
+        // First point in the cell, or -1 if it is empty
+        private int lookup(long cx, long cy) {
+            int slot = slot(cx, cy);
+            while (epochOf[slot] == epoch) {
+                if (cellX[slot] == cx && cellY[slot] == cy) {
+                    return head[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long cx, long cy) {
+            long h = cx * 0x9E3779B97F4A7C15L + cy;
+            h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private double distSq(int a, int b) {
+            double dx = qx[a] - qx[b];
+            double dy = qy[a] - qy[b];
+            return dx * dx + dy * dy;
+        }
+    }
+
+    // Power-of-two slot count for a linear-probing cell table holding up to `points` cells, at
+    // load factor <= 1/2 (shared with ClosestPairND and DynamicClosestPair). Computed in long and
+    // clamped to 2^30 slots; probing still terminates as long as some slot stays free.
+    static int gridCapacity(int points) {
+        if (points >= GRID_MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                "Grid cell table supports fewer than " + GRID_MAX_CAPACITY + " points");
+        }
+        long capacity = Long.highestOneBit(Math.max(4, points) - 1L) << 2;
+        return (int) Math.min(capacity, GRID_MAX_CAPACITY);
+    }
+
+    // Bins an evenly strided sample into a 16x16 histogram over its bounding box. Spread-out
+    // 2-D data fills a good share of the bins, near-collinear data only a thin band. A few
+    // tight clumps also read as sparse; there the grid would win a little earlier, but
+    // divide-and-conquer stays within ~1.5x of it below the upper threshold.
+    private static boolean preferGrid(double[] xs, double[] ys) {
+        int n = xs.length;
+        if (n < GRID_THRESHOLD) return false;
+        if (n >= GRID_THRESHOLD_DEGENERATE) return true;
+
+        int step = Math.max(1, n / DENSITY_SAMPLE);
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i += step) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double width = maxX - minX, height = maxY - minY;
+        if (!(width > 0 && height > 0)) return false;
+
+        boolean[] occupied = new boolean[DENSITY_BINS * DENSITY_BINS];
+        int occupiedCount = 0;
+        for (int i = 0; i < n; i += step) {
+            int bx = Math.min(DENSITY_BINS - 1, (int) ((xs[i] - minX) / width * DENSITY_BINS));
+            int by = Math.min(DENSITY_BINS - 1, (int) ((ys[i] - minY) / height * DENSITY_BINS));
+            if (!occupied[bx * DENSITY_BINS + by]) {
+                occupied[bx * DENSITY_BINS + by] = true;
+                occupiedCount++;
+            }
+        }
+        return occupiedCount * 4 >= occupied.length;
+    }
+
     // Utility method for testing - generates random points
     public static Point[] generateRandomPoints(int n, double maxCoordinate) {
         Point[] points = new Point[n];
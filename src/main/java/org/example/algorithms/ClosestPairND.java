@@ -0,0 +1,473 @@
+package org.example.algorithms;
+
+import org.example.utils.ArrayUtils;
+import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+
+
+// Closest pair in d dimensions over a flat coordinate buffer: point i occupies
+// coords[i * dims .. i * dims + dims). Distances go through a pluggable Metric that compares
+// in "rank" units (squared for Euclidean) so the hot loops never take a square root.
+//
+// Strategy by dimension (ClosestPair.Strategy.AUTO):
+// - 2-D Euclidean goes straight to ClosestPair's SoA engines, so that path is unchanged
+// - up to GRID_MAX_DIMS dimensions: randomized incremental grid, expected O(3^d n)
+// - above that: divide and conquer on the widest axis with a strip scan on the second widest
+// The grid probes 3^d scattered cells per point; from 3-D on that costs more than the strip
+// scan's sequential passes (about 2x slower at 50K uniform points), hence the low cutoff.
+// The strip scan has no packing bound above 2-D: the window on the secondary axis admits ever
+// more points as dims grow. At 20K uniform points it evaluates 0.3% of all pairs at 4-D, 4% at
+// 8-D and 30-40% at 16-D, so in high dimensions expect close to brute-force cost.
+public class ClosestPairND {
+    private static final int GRID_MAX_DIMS = 2;
+    // Hard limit for a forced GRID: 3^8 = 6561 probed cells per point, and the neighborhood
+    // count and cell key table stay within int range
+    private static final int GRID_DIMS_LIMIT = 8;
+
+    // A distance with a monotone, sqrt-free surrogate. Every supported metric must satisfy
+    // distance(a, b) >= |a[k] - b[k]| on each axis k, which is what the pruning relies on.
+    public interface Metric {
+        // Surrogate distance between points a and b; only its order matters
+        double rank(double[] coords, int a, int b, int dims);
+
+        // Rank of a separation along a single axis, the smallest rank such a pair can have
+        double axisRank(double gap);
+
+        // The true distance for a rank
+        double distance(double rank);
+    }
+
+    public enum StandardMetric implements Metric {
+        EUCLIDEAN {
+            @Override
+            public double rank(double[] coords, int a, int b, int dims) {
+                int offA = a * dims, offB = b * dims;
+                double sum = 0;
+                for (int k = 0; k < dims; k++) {
+                    double d = coords[offA + k] - coords[offB + k];
+                    sum += d * d;
+                }
+                return sum;
+            }
+
+            @Override
+            public double axisRank(double gap) {
+                return gap * gap;
+            }
+
+            @Override
+            public double distance(double rank) {
+                return Math.sqrt(rank);
+            }
+        },
+        MANHATTAN {
+            @Override
+            public double rank(double[] coords, int a, int b, int dims) {
+                int offA = a * dims, offB = b * dims;
+                double sum = 0;
+                for (int k = 0; k < dims; k++) {
+                    sum += Math.abs(coords[offA + k] - coords[offB + k]);
+                }
+                return sum;
+            }
+
+            @Override
+            public double axisRank(double gap) {
+                return Math.abs(gap);
+            }
+
+            @Override
+            public double distance(double rank) {
+                return rank;
+            }
+        },
+        CHEBYSHEV {
+            @Override
+            public double rank(double[] coords, int a, int b, int dims) {
+                int offA = a * dims, offB = b * dims;
+                double max = 0;
+                for (int k = 0; k < dims; k++) {
+                    max = Math.max(max, Math.abs(coords[offA + k] - coords[offB + k]));
+                }
+                return max;
+            }
+
+            @Override
+            public double axisRank(double gap) {
+                return Math.abs(gap);
+            }
+
+            @Override
+            public double distance(double rank) {
+                return rank;
+            }
+        }
+    }
+
+    public static int[] findClosestPair(double[] coords, int dims, Metric metric) {
+        return findClosestPair(coords, dims, metric, ClosestPair.Strategy.AUTO, Metrics.backend());
+    }
+
+    // Returns the indices {i, j} (i < j) of a closest pair
+    public static int[] findClosestPair(double[] coords, int dims, Metric metric, ClosestPair.Strategy strategy,
+                                        MetricsBackend metrics) {
+        if (coords == null || metric == null || strategy == null) {
+            throw new IllegalArgumentException("Coordinates, metric and strategy must not be null");
+        }
+        if (dims < 1 || coords.length % dims != 0) {
+            throw new IllegalArgumentException("Coordinate buffer length must be a multiple of dims");
+        }
+        int n = coords.length / dims;
+        if (n < 2) {
+            throw new IllegalArgumentException("Need at least 2 points");
+        }
+
+        if (strategy == ClosestPair.Strategy.AUTO) {
+            if (dims == 2 && metric == StandardMetric.EUCLIDEAN) {
+                return findClosestPair2D(coords, n, strategy, metrics);
+            }
+            strategy = dims <= GRID_MAX_DIMS ? ClosestPair.Strategy.GRID : ClosestPair.Strategy.DIVIDE_AND_CONQUER;
+        }
+
+        if (strategy == ClosestPair.Strategy.GRID) {
+            if (dims > GRID_DIMS_LIMIT) {
+                throw new IllegalArgumentException(
+                    "GRID strategy supports at most " + GRID_DIMS_LIMIT + " dimensions");
+            }
+            GridSearch search = new GridSearch(coords, dims, n, metric, metrics);
+            search.run();
+            return new int[]{Math.min(search.bestA, search.bestB), Math.max(search.bestA, search.bestB)};
+        }
+        StripSearch search = new StripSearch(coords, dims, n, metric, metrics);
+        search.closestPairRec(0, n - 1);
+        int a = search.order[search.bestA];
+        int b = search.order[search.bestB];
+        return new int[]{Math.min(a, b), Math.max(a, b)};
+    }
+
+    // Distance between points i and j under metric
+    public static double distance(double[] coords, int dims, Metric metric, int i, int j) {
+        return metric.distance(metric.rank(coords, i, j, dims));
+    }
+
+    private static int[] findClosestPair2D(double[] coords, int n, ClosestPair.Strategy strategy,
+                                           MetricsBackend metrics) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = coords[2 * i];
+            ys[i] = coords[2 * i + 1];
+        }
+        metrics.incrementAllocations(2L * n);
+        return ClosestPair.findClosestPair(xs, ys, strategy, metrics);
+    }
+
+    // Randomized incremental grid in d dimensions: cells of side equal to the best distance,
+    // so any closer point lies in one of the 3^d cells around a new point. Rebuilds happen at
+    // step i with probability at most 2/i. Cell coordinates are stored per slot, d longs each.
+    private static final class GridSearch {
+        final double[] coords;
+        final int dims, n;
+        final Metric metric;
+        final MetricsBackend metrics;
+        final int[] order;  // random insertion order
+        final int[] next;
+        final long[] cellKeys;
+        final int[] head, epochOf;
+        final long[] probe;  // cell coordinates being looked up
+        final int mask;
+
+        int epoch;
+        double cellSize;
+        double bestRank;
+        int bestA, bestB;
+
+        GridSearch(double[] coords, int dims, int n, Metric metric, MetricsBackend metrics) {
+            this.coords = coords;
+            this.dims = dims;
+            this.n = n;
+            this.metric = metric;
+            this.metrics = metrics;
+
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            ArrayUtils.shuffle(order);
+            next = new int[n];
+
+            int capacity = ClosestPair.gridCapacity(n);
+            long keys = (long) capacity * dims;
+            if (keys > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many points for a " + dims + "-dimensional grid");
+            }
+            mask = capacity - 1;
+            cellKeys = new long[(int) keys];
+            head = new int[capacity];
+            epochOf = new int[capacity];
+            probe = new long[dims];
+            metrics.incrementAllocations(2L * n + (long) capacity * (dims + 2));
+        }
+
+        void run() {
+            long comparisons = 1;
+            setBest(order[0], order[1], metric.rank(coords, order[0], order[1], dims));
+            rebuild(1);
+
+            long[] base = new long[dims];
+            int neighborhood = 1;
+            for (int k = 0; k < dims; k++) {
+                neighborhood *= 3;
+            }
+
+            for (int i = 2; i < n && bestRank > 0; i++) {
+                int p = order[i];
+                for (int k = 0; k < dims; k++) {
+                    base[k] = cell(coords[p * dims + k]);
+                }
+                boolean improved = false;
+
+                // Offsets in {-1, 0, 1}^d, enumerated as base-3 digits of c
+                for (int c = 0; c < neighborhood; c++) {
+                    int digits = c;
+                    for (int k = 0; k < dims; k++) {
+                        probe[k] = base[k] + digits % 3 - 1;
+                        digits /= 3;
+                    }
+                    for (int j = lookup(probe); j >= 0; j = next[j]) {
+                        comparisons++;
+                        double r = metric.rank(coords, p, j, dims);
+                        if (r < bestRank) {
+                            setBest(p, j, r);
+                            improved = true;
+                        }
+                    }
+                }
+
+                if (improved) {
+                    rebuild(i);
+                } else {
+                    insert(p, base);
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+        }
+
+        private void setBest(int a, int b, double rank) {
+            bestRank = rank;
+            bestA = a;
+            bestB = b;
+        }
+
+        private void rebuild(int last) {
+            if (bestRank == 0) return;
+            cellSize = metric.distance(bestRank);
+            epoch++;
+            long[] key = new long[dims];
+            for (int i = 0; i <= last; i++) {
+                int p = order[i];
+                for (int k = 0; k < dims; k++) {
+                    key[k] = cell(coords[p * dims + k]);
+                }
+                insert(p, key);
+            }
+        }
+
+        private long cell(double coordinate) {
+            return (long) Math.floor(coordinate / cellSize);
+        }
+
+        private void insert(int point, long[] key) {
+            int slot = slot(key);
+            while (epochOf[slot] == epoch && !matches(slot, key)) {
+                slot = (slot + 1) & mask;
+            }
+            if (epochOf[slot] != epoch) {
+                epochOf[slot] = epoch;
+                System.arraycopy(key, 0, cellKeys, slot * dims, dims);
+                head[slot] = -1;
+            }
+            next[point] = head[slot];
+            head[slot] = point;
+        }
+
+        private int lookup(long[] key) {
+            int slot = slot(key);
+            while (epochOf[slot] == epoch) {
+                if (matches(slot, key)) {
+                    return head[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean matches(int slot, long[] key) {
+            int off = slot * dims;
+            for (int k = 0; k < dims; k++) {
+                if (cellKeys[off + k] != key[k]) return false;
+            }
+            return true;
+        }
+
+        private int slot(long[] key) {
+            long h = 0;
+            for (int k = 0; k < dims; k++) {
+                h = (h + key[k]) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 29;
+            }
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    // Divide and conquer generalizing the 2-D SoA search: points are ordered along the axis
+    // with the widest spread, the recursion splits at the median, and a y-like secondary axis
+    // (the second widest) is kept sorted by merging on the way back up. A pair straddling the
+    // split can only beat the best if its gaps on both axes are within the best distance, so
+    // the strip is scanned in secondary order with a window. Positions index the sorted order.
+    private static final class StripSearch {
+        final double[] coords;
+        final int dims;
+        final Metric metric;
+        final MetricsBackend metrics;
+        final int[] order;          // position -> input index, sorted on the primary axis
+        final double[] primary, secondary;
+        final int[] bySecondary, scratch, strip;
+
+        double bestRank = Double.POSITIVE_INFINITY;
+        int bestA, bestB;
+
+        StripSearch(double[] coords, int dims, int n, Metric metric, MetricsBackend metrics) {
+            this.coords = coords;
+            this.dims = dims;
+            this.metric = metric;
+            this.metrics = metrics;
+
+            // Pick the two axes with the largest spread
+            int axisA = 0, axisB = dims > 1 ? 1 : 0;
+            double spreadA = -1, spreadB = -1;
+            for (int k = 0; k < dims; k++) {
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < n; i++) {
+                    double v = coords[i * dims + k];
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                double spread = max - min;
+                if (spread > spreadA) {
+                    axisB = axisA;
+                    spreadB = spreadA;
+                    axisA = k;
+                    spreadA = spread;
+                } else if (spread > spreadB) {
+                    axisB = k;
+                    spreadB = spread;
+                }
+            }
+
+            primary = new double[n];
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                primary[i] = coords[i * dims + axisA];
+                order[i] = i;
+            }
+            MergeSort.sort(primary, order, metrics);
+
+            secondary = new double[n];
+            bySecondary = new int[n];
+            scratch = new int[n];
+            strip = new int[n];
+            for (int pos = 0; pos < n; pos++) {
+                secondary[pos] = coords[order[pos] * dims + axisB];
+                bySecondary[pos] = pos;
+            }
+            metrics.incrementAllocations(6L * n);
+        }
+
+        void closestPairRec(int left, int right) {
+            metrics.incrementDepth();
+
+            try {
+                if (right - left + 1 <= 3) {
+                    for (int i = left; i <= right; i++) {
+                        for (int j = i + 1; j <= right; j++) {
+                            offer(i, j);
+                        }
+                    }
+                    metrics.incrementComparisons((long) (right - left + 1) * (right - left) / 2);
+                    sortBySecondary(left, right);
+                    return;
+                }
+
+                int mid = left + (right - left) / 2;
+                double split = primary[mid];
+
+                closestPairRec(left, mid);
+                closestPairRec(mid + 1, right);
+                mergeBySecondary(left, mid, right);
+                scanStrip(left, mid, right, split);
+
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+
+        private void scanStrip(int left, int mid, int right, double split) {
+            int stripSize = 0;
+            for (int k = left; k <= right; k++) {
+                int pos = bySecondary[k];
+                if (metric.axisRank(primary[pos] - split) < bestRank) {
+                    strip[stripSize++] = pos;
+                }
+            }
+
+            long comparisons = 0;
+            for (int i = 0; i < stripSize; i++) {
+                int a = strip[i];
+                boolean leftSide = a <= mid;
+                for (int j = i + 1; j < stripSize; j++) {
+                    int b = strip[j];
+                    if (metric.axisRank(secondary[b] - secondary[a]) >= bestRank) break;
+                    if ((b <= mid) != leftSide) {
+                        comparisons++;
+                        offer(a, b);
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+        }
+
+        private void offer(int a, int b) {
+            double r = metric.rank(coords, order[a], order[b], dims);
+            if (r < bestRank) {
+                bestRank = r;
+                bestA = a;
+                bestB = b;
+            }
+        }
+
+        private void sortBySecondary(int left, int right) {
+            for (int i = left + 1; i <= right; i++) {
+                int pos = bySecondary[i];
+                int j = i - 1;
+                while (j >= left && secondary[bySecondary[j]] > secondary[pos]) {
+                    bySecondary[j + 1] = bySecondary[j];
+                    j--;
+                }
+                bySecondary[j + 1] = pos;
+            }
+        }
+
+        private void mergeBySecondary(int left, int mid, int right) {
+            int i = left, j = mid + 1, k = left;
+            while (i <= mid && j <= right) {
+                scratch[k++] = secondary[bySecondary[j]] < secondary[bySecondary[i]]
+                    ? bySecondary[j++] : bySecondary[i++];
+            }
+            while (i <= mid) scratch[k++] = bySecondary[i++];
+            while (j <= right) scratch[k++] = bySecondary[j++];
+            System.arraycopy(scratch, left, bySecondary, left, right - left + 1);
+            metrics.incrementComparisons(right - left);
+        }
+    }
+}
@@ -1,86 +1,433 @@
 package org.example.algorithms;
 
 import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
 import org.example.utils.ArrayUtils;
+import org.example.utils.SortingNetworks;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class DeterministicSelect {
+    // Floyd-Rivest sampling pays off only on ranges larger than this
+    private static final int SAMPLING_THRESHOLD = 600;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Smallest slice worth handing to its own worker during parallel passes
+    private static final int MIN_CHUNK = 4096;
+    // Ranges up to this size are finished with a sorting network. Tunable with -Dselect.cutoff (2..16).
+    private static final int BASE_CASE_CUTOFF = SortingNetworks.cutoff("select.cutoff", 16);
 
+    public enum Strategy {
+        MEDIAN_OF_MEDIANS,  // guaranteed O(n), large constant
+        INTROSELECT         // Floyd-Rivest / random-pivot quickselect, median of medians once progress stalls
+    }
 
     public static int select(int[] arr, int k) {
+        return select(arr, k, Metrics.backend());
+    }
+
+    public static int select(int[] arr, int k, MetricsBackend metrics) {
+        if (arr == null || k < 0 || k >= arr.length) {
+            throw new IllegalArgumentException("Invalid input");
+        }
+
+        return select(arr, 0, arr.length - 1, k, metrics);
+    }
+
+    public static int select(int[] arr, int k, Strategy strategy) {
+        return select(arr, k, strategy, Metrics.backend());
+    }
+
+    public static int select(int[] arr, int k, Strategy strategy, MetricsBackend metrics) {
         if (arr == null || k < 0 || k >= arr.length) {
             throw new IllegalArgumentException("Invalid input");
         }
 
-        return select(arr, 0, arr.length - 1, k);
+        if (strategy == Strategy.INTROSELECT) {
+            introSelect(arr, 0, arr.length - 1, k, metrics);
+            return arr[k];
+        }
+        return select(arr, 0, arr.length - 1, k, metrics);
     }
 
-    private static int select(int[] arr, int low, int high, int k) {
-        Metrics.incrementDepth();
+    // Parallel selection for very large arrays. Each level computes the group-of-5 medians in
+    // parallel, selects their median as pivot, and partitions three ways in parallel: every
+    // worker counts <, == and > pivot over its slice, prefix sums give each slice its output
+    // offsets, and the workers scatter into a scratch buffer. Only the side holding k is kept.
+    // Unlike select, arr itself is left unchanged.
+    public static int parallelSelect(int[] arr, int k) {
+        return parallelSelect(arr, k, ForkJoinPool.commonPool());
+    }
+
+    public static int parallelSelect(int[] arr, int k, ForkJoinPool pool) {
+        return parallelSelect(arr, k, pool, PARALLEL_THRESHOLD, Metrics.backend());
+    }
+
+    public static int parallelSelect(int[] arr, int k, ForkJoinPool pool, int sequentialThreshold,
+                                     MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= 5) {
+            throw new IllegalArgumentException("Sequential threshold must exceed 5");
+        }
+        if (arr == null || k < 0 || k >= arr.length) {
+            throw new IllegalArgumentException("Invalid input");
+        }
+
+        return parallelSelect(arr, 0, arr.length - 1, k, pool, sequentialThreshold, metrics);
+    }
+
+    // k-th smallest of src[low..high], with k relative to low; src is only read
+    private static int parallelSelect(int[] src, int low, int high, int k, ForkJoinPool pool,
+                                      int threshold, MetricsBackend metrics) {
+        metrics.incrementDepth();
 
         try {
-            // Base case: small arrays
-            if (high - low + 1 <= 5) {
-                ArrayUtils.insertionSort(arr, low, high);
-                return arr[k];
+            // Ping-pong buffers: the first pass reads arr, later passes read whichever buffer
+            // holds the kept side and write into the other one, always starting at index 0
+            int[] first = null;
+            int[] second = null;
+            int[] medians = null;
+
+            while (high - low + 1 > threshold) {
+                int n = high - low + 1;
+                if (first == null) {
+                    first = new int[n];
+                    medians = new int[(n + 4) / 5];
+                    metrics.incrementAllocations(first.length + medians.length);
+                }
+                int[] dst = src == first ? second : first;
+                if (dst == null) {
+                    second = new int[n];
+                    metrics.incrementAllocations(n);
+                    dst = second;
+                }
+                int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, n / MIN_CHUNK));
+
+                int pivot = parallelMedianOfMedians(src, low, high, medians, chunks, pool, threshold, metrics);
+                long bounds = parallelPartition(src, low, high, pivot, dst, chunks, pool, metrics);
+                int lt = (int) (bounds >>> 32);
+                int gt = (int) bounds;
+
+                // Keep only the side that holds rank k
+                src = dst;
+                if (k < lt) {
+                    low = 0;
+                    high = lt - 1;
+                } else if (k > gt) {
+                    low = gt + 1;
+                    high = n - 1;
+                    k -= gt + 1;
+                } else {
+                    return pivot;
+                }
             }
 
-            // Find median of medians as pivot
-            int pivotValue = medianOfMedians(arr, low, high);
+            // Small enough: finish sequentially on a private copy of the remaining range.
+            // Introselect keeps the O(n) bound while avoiding median of medians' constant here
+            int[] rest = Arrays.copyOfRange(src, low, high + 1);
+            metrics.incrementAllocations(rest.length);
+            introSelect(rest, 0, rest.length - 1, k, metrics);
+            return rest[k];
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    // Median of the group-of-5 medians of src[low..high]; groups are read into a per-worker
+    // array so src stays untouched. The medians' own median is found recursively.
+    private static int parallelMedianOfMedians(int[] src, int low, int high, int[] medians, int chunks,
+                                               ForkJoinPool pool, int threshold, MetricsBackend metrics) {
+        int numGroups = (high - low + 5) / 5;
+
+        ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+            int firstGroup = (int) ((long) numGroups * chunk / chunks);
+            int lastGroup = (int) ((long) numGroups * (chunk + 1) / chunks);
+            int[] group = new int[5];
+            chunkMetrics.incrementAllocations(group.length);
 
-            // Find the pivot position
-            int pivotIndex = findPivotIndex(arr, low, high, pivotValue);
+            for (int g = firstGroup; g < lastGroup; g++) {
+                int groupLow = low + g * 5;
+                int length = Math.min(5, high - groupLow + 1);
+                System.arraycopy(src, groupLow, group, 0, length);
+                if (length == 5) {
+                    SortingNetworks.medianOf5(group, 0, chunkMetrics);
+                } else {
+                    SortingNetworks.sort(group, 0, length - 1, chunkMetrics);
+                }
+                medians[g] = group[(length - 1) / 2];
+            }
+        });
 
-            // Partition around the pivot
-            int partitionIndex = ArrayUtils.partition(arr, low, high, pivotIndex);
+        if (numGroups > threshold) {
+            return parallelSelect(medians, 0, numGroups - 1, numGroups / 2, pool, threshold, metrics);
+        }
+        introSelect(medians, 0, numGroups - 1, numGroups / 2, metrics);
+        return medians[numGroups / 2];
+    }
+
+    // Three-way partition of src[low..high] into dst[0..n): per-slice counts, prefix sums, scatter.
+    // Returns lt and gt (relative to dst) packed as (lt << 32 | gt), like ArrayUtils.partition3Way
+    private static long parallelPartition(int[] src, int low, int high, int pivot, int[] dst, int chunks,
+                                          ForkJoinPool pool, MetricsBackend metrics) {
+        int n = high - low + 1;
+        int[] less = new int[chunks];
+        int[] equal = new int[chunks];
+        metrics.incrementAllocations(2L * chunks);
 
-            // Recurse on the appropriate side
-            if (k == partitionIndex) {
+        ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+            int from = low + (int) ((long) n * chunk / chunks);
+            int to = low + (int) ((long) n * (chunk + 1) / chunks);
+            int lessCount = 0, equalCount = 0;
+            for (int i = from; i < to; i++) {
+                if (src[i] < pivot) {
+                    lessCount++;
+                } else if (src[i] == pivot) {
+                    equalCount++;
+                }
+            }
+            less[chunk] = lessCount;
+            equal[chunk] = equalCount;
+            chunkMetrics.incrementComparisons(2L * (to - from));
+        });
+
+        // Exclusive prefix sums turn the counts into each slice's write offsets
+        int totalLess = 0, totalEqual = 0;
+        for (int c = 0; c < chunks; c++) {
+            int l = less[c], e = equal[c];
+            less[c] = totalLess;
+            equal[c] = totalEqual;
+            totalLess += l;
+            totalEqual += e;
+        }
+        int equalBase = totalLess;
+        int greaterBase = totalLess + totalEqual;
+
+        ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+            int from = low + (int) ((long) n * chunk / chunks);
+            int to = low + (int) ((long) n * (chunk + 1) / chunks);
+            int lessPos = less[chunk];
+            int equalPos = equalBase + equal[chunk];
+            // Slices before this one wrote (from - low) elements in total, the rest of them greater
+            int greaterPos = greaterBase + (from - low) - less[chunk] - equal[chunk];
+            for (int i = from; i < to; i++) {
+                int value = src[i];
+                if (value < pivot) {
+                    dst[lessPos++] = value;
+                } else if (value == pivot) {
+                    dst[equalPos++] = value;
+                } else {
+                    dst[greaterPos++] = value;
+                }
+            }
+            chunkMetrics.incrementComparisons(2L * (to - from));
+        });
+
+        return ((long) totalLess << 32) | ((greaterBase - 1) & 0xFFFFFFFFL);
+    }
+
+    // Selects several ranks in one recursive pass: each partition step routes every requested
+    // rank to the side that contains it, so m ranks cost O(n log m) instead of m separate selects.
+    // Returns the values in the order of ks. Like select, arr is rearranged in place; afterwards
+    // arr[k] holds the k-th smallest for every requested k and every element between two
+    // requested ranks lies between their values, so arr[k1..k2] can be read off as a range.
+    public static int[] selectMany(int[] arr, int[] ks) {
+        return selectMany(arr, ks, Metrics.backend());
+    }
+
+    public static int[] selectMany(int[] arr, int[] ks, MetricsBackend metrics) {
+        if (arr == null || ks == null) {
+            throw new IllegalArgumentException("Invalid input");
+        }
+        for (int k : ks) {
+            if (k < 0 || k >= arr.length) {
+                throw new IllegalArgumentException("Invalid input");
+            }
+        }
+
+        int[] sortedKs = ks.clone();
+        Arrays.sort(sortedKs);
+        metrics.incrementAllocations(ks.length);
+        if (sortedKs.length > 0) {
+            multiSelect(arr, 0, arr.length - 1, sortedKs, 0, sortedKs.length - 1, metrics);
+        }
+
+        int[] result = new int[ks.length];
+        metrics.incrementAllocations(ks.length);
+        for (int i = 0; i < ks.length; i++) {
+            result[i] = arr[ks[i]];
+        }
+        return result;
+    }
+
+    // Partially ordered copy of arr for range extraction: the input is left untouched
+    public static int[] partialOrder(int[] arr, int[] ks) {
+        if (arr == null) {
+            throw new IllegalArgumentException("Invalid input");
+        }
+        int[] copy = ArrayUtils.copyArray(arr);
+        selectMany(copy, ks);
+        return copy;
+    }
+
+    // ks[kLow..kHigh] are sorted ranks that all fall inside arr[low..high]
+    private static void multiSelect(int[] arr, int low, int high, int[] ks, int kLow, int kHigh,
+                                    MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                SortingNetworks.sort(arr, low, high, metrics);
+                return;
+            }
+
+            // Three-way split so a run of keys equal to the pivot resolves every rank inside it at
+            // once; duplicate-heavy inputs would otherwise peel off one pivot copy per level
+            int pivotValue = arr[medianOfMedians(arr, low, high, metrics)];
+            long bounds = ArrayUtils.partition3Way(arr, low, high, pivotValue, metrics);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+
+            // Ranks below the run go left, ranks above go right, ranks inside it are done
+            int split = kLow;
+            while (split <= kHigh && ks[split] < lt) {
+                split++;
+            }
+            int rightStart = split;
+            while (rightStart <= kHigh && ks[rightStart] <= gt) {
+                rightStart++;
+            }
+
+            if (split > kLow) {
+                multiSelect(arr, low, lt - 1, ks, kLow, split - 1, metrics);
+            }
+            if (rightStart <= kHigh) {
+                multiSelect(arr, gt + 1, high, ks, rightStart, kHigh, metrics);
+            }
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    // Package-private so callers with oversized scratch buffers can select within a prefix
+    static int select(int[] arr, int low, int high, int k, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            // Base case: small arrays
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                SortingNetworks.sort(arr, low, high, metrics);
                 return arr[k];
-            } else if (k < partitionIndex) {
-                return select(arr, low, partitionIndex - 1, k);
+            }
+
+            // Median of medians as pivot, three-way partition so duplicate keys settle in one pass
+            int pivotValue = arr[medianOfMedians(arr, low, high, metrics)];
+            long bounds = ArrayUtils.partition3Way(arr, low, high, pivotValue, metrics);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+
+            // Recurse on the side that holds k
+            if (k < lt) {
+                return select(arr, low, lt - 1, k, metrics);
+            } else if (k > gt) {
+                return select(arr, gt + 1, high, k, metrics);
             } else {
-                return select(arr, partitionIndex + 1, high, k);
+                return arr[k];
+            }
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    // Places the k-th smallest of arr[low..high] at arr[k]. Large ranges take their pivot from
+    // Floyd-Rivest sampling, small ones from a random index. Every two partitions must at least
+    // halve the range; if they don't, the rest is handed to median of medians, which keeps O(n).
+    private static void introSelect(int[] arr, int low, int high, int k, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            int checkpoint = high - low + 1;
+            int partitions = 0;
+
+            while (high - low + 1 > BASE_CASE_CUTOFF) {
+                int n = high - low + 1;
+                if (partitions > 0 && partitions % 2 == 0) {
+                    if (n > checkpoint / 2) {
+                        select(arr, low, high, k, metrics);
+                        return;
+                    }
+                    checkpoint = n;
+                }
+                partitions++;
+
+                int pivot;
+                if (n > SAMPLING_THRESHOLD) {
+                    // Recursively select within a sample window around k, so that arr[k]
+                    // lands close to the true k-th smallest of the whole range
+                    int i = k - low + 1;
+                    double z = Math.log(n);
+                    double s = 0.5 * Math.exp(2 * z / 3);
+                    double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2.0);
+                    int sampleLow = Math.max(low, (int) (k - i * s / n + sd));
+                    int sampleHigh = Math.min(high, (int) (k + (n - i) * s / n + sd));
+                    sampleLow = Math.min(sampleLow, k);
+                    sampleHigh = Math.max(sampleHigh, k);
+                    introSelect(arr, sampleLow, sampleHigh, k, metrics);
+                    pivot = arr[k];
+                } else {
+                    pivot = arr[ArrayUtils.randomPivot(low, high)];
+                }
+
+                long bounds = ArrayUtils.partition3Way(arr, low, high, pivot, metrics);
+                int lt = (int) (bounds >>> 32);
+                int gt = (int) bounds;
+
+                if (k < lt) {
+                    high = lt - 1;
+                } else if (k > gt) {
+                    low = gt + 1;
+                } else {
+                    return;
+                }
             }
 
+            SortingNetworks.sort(arr, low, high, metrics);
+
         } finally {
-            Metrics.decrementDepth();
+            metrics.decrementDepth();
         }
     }
 
-    private static int medianOfMedians(int[] arr, int low, int high) {
+    // In-place BFPRT: the median of each group of 5 is swapped into the prefix arr[low..],
+    // the prefix is selected recursively, and the index of the median of medians is returned.
+    // Nothing is allocated and no scan is needed to find the pivot afterwards.
+    private static int medianOfMedians(int[] arr, int low, int high, MetricsBackend metrics) {
         int n = high - low + 1;
         int numGroups = (n + 4) / 5; // ceiling division
 
-        // Create array for medians
-        int[] medians = new int[numGroups];
-        Metrics.incrementAllocations(numGroups);
-
-        // Find median of each group of 5
+        // Find median of each group of 5 and move it to the front
         for (int i = 0; i < numGroups; i++) {
             int groupLow = low + i * 5;
             int groupHigh = Math.min(groupLow + 4, high);
 
-            // Sort the group and take median
-            ArrayUtils.insertionSort(arr, groupLow, groupHigh);
-            int medianIndex = groupLow + (groupHigh - groupLow) / 2;
-            medians[i] = arr[medianIndex];
-        }
-
-        // Recursively find median of medians
-        if (numGroups == 1) {
-            return medians[0];
-        } else {
-            return select(medians, 0, numGroups - 1, numGroups / 2);
+            if (groupHigh - groupLow == 4) {
+                SortingNetworks.medianOf5(arr, groupLow, metrics);
+            } else {
+                SortingNetworks.sort(arr, groupLow, groupHigh, metrics);
+            }
+            ArrayUtils.swap(arr, low + i, groupLow + (groupHigh - groupLow) / 2);
         }
-    }
 
-    private static int findPivotIndex(int[] arr, int low, int high, int pivotValue) {
-        for (int i = low; i <= high; i++) {
-            if (arr[i] == pivotValue) {
-                return i;
-            }
+        // Recursively find median of medians within the prefix
+        int medianIndex = low + numGroups / 2;
+        if (numGroups > 1) {
+            select(arr, low, low + numGroups - 1, medianIndex, metrics);
         }
-        throw new RuntimeException("Pivot value not found in array");
+        return medianIndex;
     }
 }
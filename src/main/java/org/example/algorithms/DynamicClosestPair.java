@@ -0,0 +1,278 @@
+package org.example.algorithms;
+
+import java.util.Arrays;
+
+
+// Maintains the closest pair of a changing point set. Points sit in a hash grid whose cell
+// side is at least the current closest distance, so an insertion only checks the 3x3 cells
+// around the new point: O(1) expected. The grid is rebuilt when the distance drops below half
+// a cell, so cells stay small. Removing a point that is not in the closest pair is O(1).
+// Removing one that is falls back to a full expected-O(n) grid search, which with deletions in
+// random order happens with probability 2/size. Not thread-safe.
+public class DynamicClosestPair {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Points by id; ids are dense and get renumbered when the grid is rebuilt
+    private ClosestPair.Point[] points = new ClosestPair.Point[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int[] slotOf = new int[INITIAL_CAPACITY];
+    private boolean[] alive = new boolean[INITIAL_CAPACITY];
+    private int count;  // ids handed out since the last rebuild
+    private int size;   // live points
+
+    // Open-addressing table of grid cells, each the head of a doubly linked list of ids
+    private long[] cellX, cellY;
+    private int[] head;
+    private int cells;
+    private double cellSize;
+
+    private double bestDistSq = Double.POSITIVE_INFINITY;
+    private int bestA = -1, bestB = -1;
+
+    public void insert(ClosestPair.Point point) {
+        if (point == null) {
+            throw new IllegalArgumentException("Point must not be null");
+        }
+        int id = append(point);
+        if (size == 2 && cellX == null) {
+            // Second point: the first distance fixes the initial cell size. Points removed before
+            // the grid existed still hold ids, so compact first to leave the live pair at 0 and 1
+            compact();
+            setBest(0, 1, distSq(points[0], points[1]));
+            rebuild(cellSizeFor(bestDistSq));
+            return;
+        }
+        if (cellX == null) {
+            return;
+        }
+
+        long cx = cell(point.x);
+        long cy = cell(point.y);
+        for (long dx = -1; dx <= 1 && bestDistSq > 0; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                for (int j = lookup(cx + dx, cy + dy); j >= 0; j = next[j]) {
+                    double d = distSq(points[j], point);
+                    if (d < bestDistSq) {
+                        setBest(j, id, d);
+                    }
+                }
+            }
+        }
+        link(id, cx, cy);
+
+        if (bestDistSq > 0 && bestDistSq < cellSize * cellSize / 4) {
+            rebuild(Math.sqrt(bestDistSq));
+        } else if (2 * (cells + 1) > cellX.length) {
+            rebuild(cellSize);
+        }
+    }
+
+    // Large batches skip the per-point search: everything is appended and the closest pair is
+    // recomputed once with the grid strategy, expected O(size + batch)
+    public void insertAll(ClosestPair.Point[] batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Batch must not be null");
+        }
+        if (batch.length < Math.max(size, 2)) {
+            for (ClosestPair.Point point : batch) {
+                insert(point);
+            }
+            return;
+        }
+
+        for (ClosestPair.Point point : batch) {
+            if (point == null) {
+                throw new IllegalArgumentException("Point must not be null");
+            }
+        }
+        for (ClosestPair.Point point : batch) {
+            append(point);
+        }
+        recompute();
+    }
+
+    // Removes one point with the same coordinates; returns false if there is none
+    public boolean remove(ClosestPair.Point point) {
+        if (point == null || size == 0) return false;
+
+        int id = find(point);
+        if (id < 0) return false;
+
+        alive[id] = false;
+        size--;
+        if (cellX != null) {
+            unlink(id);
+        }
+
+        if (id == bestA || id == bestB) {
+            recompute();
+        } else if (count > 2 * size + INITIAL_CAPACITY) {
+            rebuild(cellSize);  // reclaim dead ids
+        }
+        return true;
+    }
+
+    // Current closest pair, or null with fewer than two points
+    public ClosestPair.PointPair closestPair() {
+        if (size < 2) return null;
+        return new ClosestPair.PointPair(points[bestA], points[bestB]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(ClosestPair.Point point) {
+        if (cellX == null) {
+            for (int i = 0; i < count; i++) {
+                if (alive[i] && points[i].x == point.x && points[i].y == point.y) return i;
+            }
+            return -1;
+        }
+        for (int j = lookup(cell(point.x), cell(point.y)); j >= 0; j = next[j]) {
+            if (points[j].x == point.x && points[j].y == point.y) return j;
+        }
+        return -1;
+    }
+
+    private int append(ClosestPair.Point point) {
+        if (count == points.length) {
+            int capacity = 2 * points.length;
+            points = Arrays.copyOf(points, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            slotOf = Arrays.copyOf(slotOf, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+        }
+        int id = count++;
+        points[id] = point;
+        alive[id] = true;
+        size++;
+        return id;
+    }
+
+    // Full recomputation after the closest pair was removed or a large batch arrived
+    private void recompute() {
+        compact();
+        if (size < 2) {
+            bestDistSq = Double.POSITIVE_INFINITY;
+            bestA = bestB = -1;
+            cellX = null;
+            return;
+        }
+
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points[i].x;
+            ys[i] = points[i].y;
+        }
+        int[] pair = ClosestPair.findClosestPair(xs, ys, ClosestPair.Strategy.GRID);
+        setBest(pair[0], pair[1], distSq(points[pair[0]], points[pair[1]]));
+        rebuild(cellSizeFor(bestDistSq));
+    }
+
+    // Cells must be at least as wide as the closest distance; a zero distance (duplicate
+    // points) keeps the current size, or 1 before there is one
+    private double cellSizeFor(double distSq) {
+        if (distSq > 0) return Math.sqrt(distSq);
+        return cellSize > 0 ? cellSize : 1.0;
+    }
+
+    // Drops dead ids and rehashes every live point into cells of the given size
+    private void rebuild(double newCellSize) {
+        compact();
+        cellSize = newCellSize;
+        int capacity = ClosestPair.gridCapacity(Math.max(INITIAL_CAPACITY, size));
+        cellX = new long[capacity];
+        cellY = new long[capacity];
+        head = new int[capacity];
+        Arrays.fill(head, -2);  // -2 marks a free slot, -1 an empty cell
+        cells = 0;
+        for (int i = 0; i < count; i++) {
+            link(i, cell(points[i].x), cell(points[i].y));
+        }
+    }
+
+    // Moves live points to ids 0..size-1, keeping the closest pair's ids in step
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < count; read++) {
+            if (!alive[read]) continue;
+            if (read == bestA) bestA = write;
+            if (read == bestB) bestB = write;
+            points[write] = points[read];
+            alive[write] = true;
+            write++;
+        }
+        Arrays.fill(points, write, count, null);
+        Arrays.fill(alive, write, count, false);
+        count = write;
+    }
+
+    private void setBest(int a, int b, double distSq) {
+        bestDistSq = distSq;
+        bestA = a;
+        bestB = b;
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private void link(int id, long cx, long cy) {
+        int slot = slot(cx, cy);
+        while (head[slot] != -2 && (cellX[slot] != cx || cellY[slot] != cy)) {
+            slot = (slot + 1) & (cellX.length - 1);
+        }
+        if (head[slot] == -2) {
+            cellX[slot] = cx;
+            cellY[slot] = cy;
+            head[slot] = -1;
+            cells++;
+        }
+        next[id] = head[slot];
+        prev[id] = -1;
+        if (head[slot] >= 0) {
+            prev[head[slot]] = id;
+        }
+        head[slot] = id;
+        slotOf[id] = slot;
+    }
+
+    private void unlink(int id) {
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            head[slotOf[id]] = next[id];
+        }
+        if (next[id] >= 0) {
+            prev[next[id]] = prev[id];
+        }
+    }
+
+    // First id in the cell, or -1 if it is empty
+    private int lookup(long cx, long cy) {
+        int slot = slot(cx, cy);
+        while (head[slot] != -2) {
+            if (cellX[slot] == cx && cellY[slot] == cy) {
+                return head[slot];
+            }
+            slot = (slot + 1) & (cellX.length - 1);
+        }
+        return -1;
+    }
+
+    private int slot(long cx, long cy) {
+        long h = cx * 0x9E3779B97F4A7C15L + cy;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32)) & (cellX.length - 1);
+    }
+
+    private static double distSq(ClosestPair.Point a, ClosestPair.Point b) {
+        double dx = a.x - b.x;
+        double dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,423 @@
+package org.example.algorithms;
+
+import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+import org.example.utils.MetricsCounter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// Sorts binary files of big-endian ints or longs that do not fit in the heap.
+// Phase 1 maps the input chunk by chunk, sorts chunks concurrently with MergeSort and spills
+// each as a sorted run; phase 2 merges up to fanIn runs at a time through a loser tree until
+// a single pass can write the output. Temporary runs live next to the output file.
+// The memory budget covers the heap chunks, MergeSort's aux arrays and the direct I/O
+// buffers. Small budgets sort with fewer workers than the pool has, so that each still gets
+// a chunk of at least MIN_IO_BUFFER bytes; merge readers get one MIN_IO_BUFFER each regardless.
+// Sorting a file onto itself is rejected: output is truncated while input is still read.
+public class ExternalSort {
+    public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+    public static final int DEFAULT_FAN_IN = 64;
+
+    private static final int INT_BYTES = 4;
+    private static final int LONG_BYTES = 8;
+    private static final int MIN_IO_BUFFER = 4096;
+    // One output buffer plus a minimum chunk and its aux array
+    private static final int MIN_WORKER_BYTES = 3 * MIN_IO_BUFFER;
+
+    public static void sortInts(Path input, Path output) throws IOException {
+        sortInts(input, output, DEFAULT_MEMORY_BUDGET, DEFAULT_FAN_IN, ForkJoinPool.commonPool(),
+                 Metrics.backend());
+    }
+
+    public static void sortInts(Path input, Path output, long memoryBudgetBytes, int fanIn,
+                                ForkJoinPool pool, MetricsBackend metrics) throws IOException {
+        sort(input, output, INT_BYTES, memoryBudgetBytes, fanIn, pool, metrics);
+    }
+
+    public static void sortLongs(Path input, Path output) throws IOException {
+        sortLongs(input, output, DEFAULT_MEMORY_BUDGET, DEFAULT_FAN_IN, ForkJoinPool.commonPool(),
+                  Metrics.backend());
+    }
+
+    public static void sortLongs(Path input, Path output, long memoryBudgetBytes, int fanIn,
+                                 ForkJoinPool pool, MetricsBackend metrics) throws IOException {
+        sort(input, output, LONG_BYTES, memoryBudgetBytes, fanIn, pool, metrics);
+    }
+
+    private static void sort(Path input, Path output, int elementBytes, long memoryBudgetBytes, int fanIn,
+                             ForkJoinPool pool, MetricsBackend metrics) throws IOException {
+        if (input == null || output == null || pool == null) {
+            throw new IllegalArgumentException("Input, output and pool must not be null");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2");
+        }
+        if (memoryBudgetBytes < MIN_WORKER_BYTES) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_WORKER_BYTES + " bytes");
+        }
+
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IllegalArgumentException("Output must not be the input file");
+        }
+
+        long fileBytes = Files.size(input);
+        if (fileBytes % elementBytes != 0) {
+            throw new IllegalArgumentException(
+                "Input size " + fileBytes + " is not a multiple of " + elementBytes + " bytes");
+        }
+
+        Path tempDir = output.toAbsolutePath().getParent();
+        List<Path> temps = new ArrayList<>();
+        try {
+            List<Path> runs = createRuns(input, output, tempDir, elementBytes, fileBytes / elementBytes,
+                                         memoryBudgetBytes, pool, temps, metrics);
+            if (runs.isEmpty()) return; // the only chunk was sorted straight into output
+
+            // Intermediate passes until the remaining runs fit in one merge
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path run = Files.createTempFile(tempDir, "run-", ".bin");
+                    temps.add(run);
+                    mergeRuns(group, run, elementBytes, memoryBudgetBytes, metrics);
+                    metrics.incrementCounter(MetricsCounter.SPILLED_RUNS, 1);
+                    for (Path consumed : group) {
+                        Files.deleteIfExists(consumed);
+                    }
+                    merged.add(run);
+                }
+                metrics.incrementCounter(MetricsCounter.MERGE_PASSES, 1);
+                runs = merged;
+            }
+
+            mergeRuns(runs, output, elementBytes, memoryBudgetBytes, metrics);
+            metrics.incrementCounter(MetricsCounter.MERGE_PASSES, 1);
+        } finally {
+            for (Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // Phase 1: returns the spilled runs, or an empty list if a single chunk went straight to output
+    private static List<Path> createRuns(Path input, Path output, Path tempDir, int elementBytes, long n,
+                                         long memoryBudgetBytes, ForkJoinPool pool, List<Path> temps,
+                                         MetricsBackend metrics) throws IOException {
+        // Each worker holds a direct output buffer, a chunk and MergeSort's aux array of the
+        // same size; the output buffer is kept to about an eighth of the worker's share. Fewer
+        // workers than the pool has beat spilling runs of a handful of elements each.
+        int workers = (int) Math.min(pool.getParallelism(), memoryBudgetBytes / MIN_WORKER_BYTES);
+        int ioBufferBytes = ioBufferBytes(memoryBudgetBytes, 4 * workers, elementBytes);
+        long chunkLimit = Integer.MAX_VALUE / elementBytes;
+        long chunkBytes = memoryBudgetBytes / workers - ioBufferBytes;
+        long minChunk = MIN_IO_BUFFER / elementBytes;
+        long chunkElements = Math.max(minChunk, Math.min(chunkLimit, chunkBytes / (2L * elementBytes)));
+        int chunks = (int) Math.max(1, (n + chunkElements - 1) / chunkElements);
+        workers = Math.min(workers, chunks);
+
+        Path[] runs = new Path[chunks];
+        if (chunks > 1) {
+            for (int i = 0; i < chunks; i++) {
+                runs[i] = Files.createTempFile(tempDir, "run-", ".bin");
+                temps.add(runs[i]);
+            }
+        } else {
+            runs[0] = output;
+        }
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            AtomicInteger nextChunk = new AtomicInteger();
+            long chunkSize = chunkElements;
+
+            List<MetricsBackend> workerMetrics = new ArrayList<>();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                MetricsBackend local = metrics.fork();
+                workerMetrics.add(local);
+                tasks.add(() -> {
+                    ByteBuffer out = ByteBuffer.allocateDirect(ioBufferBytes);
+                    int chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                        long first = chunk * chunkSize;
+                        int count = (int) Math.min(chunkSize, n - first);
+                        sortChunk(in, first, count, elementBytes, runs[chunk], out, local);
+                    }
+                    return null;
+                });
+            }
+
+            List<Future<Void>> results = pool.invokeAll(tasks);
+            for (Future<Void> result : results) {
+                await(result);
+            }
+            for (MetricsBackend local : workerMetrics) {
+                metrics.join(local);
+            }
+        }
+
+        if (chunks == 1) {
+            return new ArrayList<>();
+        }
+        metrics.incrementCounter(MetricsCounter.SPILLED_RUNS, chunks);
+        return new ArrayList<>(Arrays.asList(runs));
+    }
+
+    private static void sortChunk(FileChannel in, long first, int count, int elementBytes, Path target,
+                                  ByteBuffer out, MetricsBackend metrics) throws IOException {
+        long offset = first * elementBytes;
+        long bytes = (long) count * elementBytes;
+        MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+        metrics.incrementCounter(MetricsCounter.IO_BYTES_READ, bytes);
+
+        // The chunk is copied out of the mapping before the run file is opened, so the
+        // mapped pages are never read after target has been truncated
+        if (elementBytes == INT_BYTES) {
+            int[] chunk = new int[count];
+            metrics.incrementAllocations(count);
+            mapped.asIntBuffer().get(chunk);
+            MergeSort.sort(chunk, metrics);
+            try (RunWriter writer = new RunWriter(target, elementBytes, out, metrics)) {
+                for (int value : chunk) {
+                    writer.put(value);
+                }
+            }
+        } else {
+            long[] chunk = new long[count];
+            metrics.incrementAllocations(count);
+            mapped.asLongBuffer().get(chunk);
+            MergeSort.sort(chunk, metrics);
+            try (RunWriter writer = new RunWriter(target, elementBytes, out, metrics)) {
+                for (long value : chunk) {
+                    writer.put(value);
+                }
+            }
+        }
+    }
+
+    // Phase 2: k-way merge of sorted runs through a loser tree
+    private static void mergeRuns(List<Path> runs, Path target, int elementBytes, long memoryBudgetBytes,
+                                  MetricsBackend metrics) throws IOException {
+        int k = runs.size();
+        int bufferBytes = ioBufferBytes(memoryBudgetBytes, k + 1, elementBytes);
+        RunReader[] readers = new RunReader[k];
+        ByteBuffer out = ByteBuffer.allocateDirect(bufferBytes);
+        try (RunWriter writer = new RunWriter(target, elementBytes, out, metrics)) {
+            LoserTree tree = new LoserTree(k);
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RunReader(runs.get(i), elementBytes, bufferBytes, metrics);
+                if (readers[i].hasNext()) {
+                    tree.keys[i] = readers[i].next();
+                } else {
+                    tree.exhausted[i] = true;
+                }
+            }
+            tree.build();
+
+            int winner;
+            while (!tree.exhausted[winner = tree.winner()]) {
+                writer.put(tree.keys[winner]);
+                if (readers[winner].hasNext()) {
+                    tree.keys[winner] = readers[winner].next();
+                } else {
+                    tree.exhausted[winner] = true;
+                }
+                tree.replay(winner);
+            }
+            metrics.incrementComparisons(tree.comparisons);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static int ioBufferBytes(long memoryBudgetBytes, int buffers, int elementBytes) {
+        long share = Math.min(1 << 20, memoryBudgetBytes / (2L * buffers));
+        long aligned = Math.max(MIN_IO_BUFFER, share) / elementBytes * elementBytes;
+        return (int) aligned;
+    }
+
+    private static void await(Future<Void> result) throws IOException {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sorting chunks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Tournament tree over k runs: internal nodes keep the loser of each match, node 0 the
+    // overall winner, so replacing the winner costs one pass from its leaf to the root
+    private static final class LoserTree {
+        final long[] keys;
+        final boolean[] exhausted;
+        private final int[] tree;
+        private final int k;
+        long comparisons;
+
+        LoserTree(int k) {
+            this.k = k;
+            this.keys = new long[k];
+            this.exhausted = new boolean[k];
+            this.tree = new int[k];
+        }
+
+        void build() {
+            Arrays.fill(tree, -1);
+            for (int leaf = k - 1; leaf >= 0; leaf--) {
+                int s = leaf;
+                int t = (s + k) / 2;
+                while (t > 0) {
+                    if (tree[t] == -1) {
+                        // First arrival waits here for its opponent
+                        tree[t] = s;
+                        s = -1;
+                        break;
+                    }
+                    if (beats(tree[t], s)) {
+                        int loser = s;
+                        s = tree[t];
+                        tree[t] = loser;
+                    }
+                    t /= 2;
+                }
+                if (s != -1) {
+                    tree[0] = s;
+                }
+            }
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        void replay(int leaf) {
+            int s = leaf;
+            for (int t = (s + k) / 2; t > 0; t /= 2) {
+                if (beats(tree[t], s)) {
+                    int loser = s;
+                    s = tree[t];
+                    tree[t] = loser;
+                }
+            }
+            tree[0] = s;
+        }
+
+        // Exhausted runs lose to everything; ties go to the lower run index
+        private boolean beats(int a, int b) {
+            if (exhausted[a]) return false;
+            if (exhausted[b]) return true;
+            comparisons++;
+            return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+        }
+    }
+
+    private static final class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int elementBytes;
+        private final MetricsBackend metrics;
+        private boolean eof;
+
+        RunReader(Path path, int elementBytes, int bufferBytes, MetricsBackend metrics) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+            this.elementBytes = elementBytes;
+            this.metrics = metrics;
+            buffer.flip(); // start empty
+        }
+
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= elementBytes) return true;
+            if (eof) return false;
+
+            buffer.compact();
+            while (buffer.position() < elementBytes) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    eof = true;
+                    break;
+                }
+                metrics.incrementCounter(MetricsCounter.IO_BYTES_READ, read);
+            }
+            buffer.flip();
+            return buffer.remaining() >= elementBytes;
+        }
+
+        long next() {
+            return elementBytes == INT_BYTES ? buffer.getInt() : buffer.getLong();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class RunWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int elementBytes;
+        private final MetricsBackend metrics;
+
+        RunWriter(Path path, int elementBytes, ByteBuffer buffer, MetricsBackend metrics) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                            StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = buffer;
+            this.elementBytes = elementBytes;
+            this.metrics = metrics;
+            buffer.clear();
+        }
+
+        void put(long value) throws IOException {
+            if (buffer.remaining() < elementBytes) {
+                flush();
+            }
+            if (elementBytes == INT_BYTES) {
+                buffer.putInt((int) value);
+            } else {
+                buffer.putLong(value);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                metrics.incrementCounter(MetricsCounter.IO_BYTES_WRITTEN, channel.write(buffer));
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package org.example.algorithms;
+
+import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+// Static 2-d tree over a point set, stored implicitly in flat arrays: the node for the range
+// [lo, hi) sits at mid = (lo + hi) >>> 1, its subtrees are [lo, mid) and [mid + 1, hi), and
+// the split axis alternates x, y, x, ... by depth. No node objects, no child pointers.
+// The bulk load takes the points' x order and y order (MergeSort.argsort gives both) and keeps
+// both sorted while it descends, so each level is a linear stable partition
+// and the whole build is O(n log n) with no further sorting. Queries return input indices and
+// are safe to run concurrently once the tree is built.
+public class KdTree {
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private final double[] xs, ys;  // coordinates in tree order
+    private final int[] ids;        // input index of each tree slot
+
+    public KdTree(ClosestPair.Point[] points) {
+        this(xsOf(points), ysOf(points));
+    }
+
+    public KdTree(double[] xs, double[] ys) {
+        this(xs, ys, orderOf(xs), orderOf(ys), null, Metrics.backend());
+    }
+
+    // Builds from precomputed orderings: byX and byY list the input indices sorted by x and by y,
+    // e.g. from MergeSort.argsort. Both arrays are checked, then consumed as scratch.
+    public static KdTree fromPresorted(double[] xs, double[] ys, int[] byX, int[] byY) {
+        return new KdTree(xs, ys, byX, byY, null, Metrics.backend());
+    }
+
+    public static KdTree parallelBuild(double[] xs, double[] ys, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        return new KdTree(xs, ys, orderOf(xs), orderOf(ys), pool, Metrics.backend());
+    }
+
+    public static KdTree parallelBuild(double[] xs, double[] ys, int[] byX, int[] byY, ForkJoinPool pool,
+                                       MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        return new KdTree(xs, ys, byX, byY, pool, metrics);
+    }
+
+    private KdTree(double[] xs, double[] ys, int[] byX, int[] byY, ForkJoinPool pool, MetricsBackend metrics) {
+        if (xs == null || ys == null || byX == null || byY == null) {
+            throw new IllegalArgumentException("Coordinates and orderings must not be null");
+        }
+        int n = xs.length;
+        if (ys.length != n || byX.length != n || byY.length != n) {
+            throw new IllegalArgumentException("Coordinates and orderings must be the same length");
+        }
+        checkOrdering(xs, byX, "x");
+        checkOrdering(ys, byY, "y");
+
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.ids = new int[n];
+        Builder builder = new Builder(xs, ys, byX, byY, this);
+        metrics.incrementAllocations(3L * n + builder.scratch.length + builder.side.length);
+
+        if (pool == null) {
+            builder.build(0, n, true, metrics);
+        } else {
+            pool.invoke(new BuildTask(builder, 0, n, true, metrics));
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Input index of the point nearest to (x, y), or -1 for an empty tree
+    public int nearest(double x, double y) {
+        if (ids.length == 0) return -1;
+        Neighbors best = new Neighbors(1);
+        kNearest(0, ids.length, true, x, y, best);
+        return ids[best.slots[0]];
+    }
+
+    // Input indices of the k points nearest to (x, y), nearest first
+    public int[] kNearest(double x, double y, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        Neighbors heap = new Neighbors(Math.min(k, ids.length));
+        if (heap.slots.length > 0) {
+            kNearest(0, ids.length, true, x, y, heap);
+        }
+
+        // Draining the max-heap yields the farthest first, so fill from the back
+        int[] result = new int[heap.size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = ids[heap.slots[0]];
+            heap.poll();
+        }
+        return result;
+    }
+
+    private void kNearest(int lo, int hi, boolean splitX, double x, double y, Neighbors heap) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+
+        heap.offer(mid, distSq(mid, x, y));
+
+        // Near side first; the far side only if the splitting line is closer than the k-th best
+        double diff = splitX ? x - xs[mid] : y - ys[mid];
+        if (diff < 0) {
+            kNearest(lo, mid, !splitX, x, y, heap);
+            if (diff * diff < heap.bound()) kNearest(mid + 1, hi, !splitX, x, y, heap);
+        } else {
+            kNearest(mid + 1, hi, !splitX, x, y, heap);
+            if (diff * diff < heap.bound()) kNearest(lo, mid, !splitX, x, y, heap);
+        }
+    }
+
+    // Input indices of the points inside the closed rectangle, in tree order
+    public int[] range(double minX, double minY, double maxX, double maxY) {
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("Empty rectangle");
+        }
+        Matches matches = new Matches();
+        range(0, ids.length, true, minX, minY, maxX, maxY, matches);
+        return Arrays.copyOf(matches.ids, matches.size);
+    }
+
+    private void range(int lo, int hi, boolean splitX, double minX, double minY, double maxX, double maxY,
+                       Matches matches) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        double x = xs[mid], y = ys[mid];
+
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            matches.add(ids[mid]);
+        }
+
+        // Left subtree holds coordinates <= the split value, right subtree >= it
+        double split = splitX ? x : y;
+        if ((splitX ? minX : minY) <= split) range(lo, mid, !splitX, minX, minY, maxX, maxY, matches);
+        if ((splitX ? maxX : maxY) >= split) range(mid + 1, hi, !splitX, minX, minY, maxX, maxY, matches);
+    }
+
+    private double distSq(int slot, double x, double y) {
+        double dx = xs[slot] - x;
+        double dy = ys[slot] - y;
+        return dx * dx + dy * dy;
+    }
+
+    // Bulk loader. byX[lo..hi) and byY[lo..hi) always hold the same points, sorted by x and by y.
+    // A node takes the median of the list for its axis, marks which side every point of the
+    // range goes to, and stably partitions the other list by those marks, so both halves stay
+    // sorted on both axes. Subranges are disjoint, which lets the halves be built in parallel.
+    private static final class Builder {
+        final double[] xs, ys;
+        final int[] byX, byY, scratch;
+        final boolean[] side;  // true: left of the current split
+        final KdTree tree;
+
+        Builder(double[] xs, double[] ys, int[] byX, int[] byY, KdTree tree) {
+            this.xs = xs;
+            this.ys = ys;
+            this.byX = byX;
+            this.byY = byY;
+            this.scratch = new int[xs.length];
+            this.side = new boolean[xs.length];
+            this.tree = tree;
+        }
+
+        void build(int lo, int hi, boolean splitX, MetricsBackend metrics) {
+            while (lo < hi) {
+                int mid = split(lo, hi, splitX, metrics);
+                build(lo, mid, !splitX, metrics);
+                lo = mid + 1;
+                splitX = !splitX;
+            }
+        }
+
+        // Places the node of [lo, hi) and partitions the other ordering; returns mid
+        int split(int lo, int hi, boolean splitX, MetricsBackend metrics) {
+            int[] primary = splitX ? byX : byY;
+            int[] secondary = splitX ? byY : byX;
+            int mid = (lo + hi) >>> 1;
+            int median = primary[mid];
+
+            for (int i = lo; i < mid; i++) side[primary[i]] = true;
+            for (int i = mid; i < hi; i++) side[primary[i]] = false;
+
+            int left = lo, right = mid + 1;
+            for (int i = lo; i < hi; i++) {
+                int id = secondary[i];
+                if (id == median) continue;
+                if (side[id]) {
+                    scratch[left++] = id;
+                } else {
+                    scratch[right++] = id;
+                }
+            }
+            System.arraycopy(scratch, lo, secondary, lo, mid - lo);
+            System.arraycopy(scratch, mid + 1, secondary, mid + 1, hi - mid - 1);
+            metrics.incrementComparisons(hi - lo);
+
+            tree.xs[mid] = xs[median];
+            tree.ys[mid] = ys[median];
+            tree.ids[mid] = median;
+            return mid;
+        }
+    }
+
+    private static final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Builder builder;
+        private final int lo, hi;
+        private final boolean splitX;
+        private final MetricsBackend metrics;
+
+        BuildTask(Builder builder, int lo, int hi, boolean splitX, MetricsBackend metrics) {
+            this.builder = builder;
+            this.lo = lo;
+            this.hi = hi;
+            this.splitX = splitX;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                builder.build(lo, hi, splitX, metrics);
+                return;
+            }
+            int mid = builder.split(lo, hi, splitX, metrics);
+
+            MetricsBackend leftMetrics = metrics.fork();
+            MetricsBackend rightMetrics = metrics.fork();
+            invokeAll(new BuildTask(builder, lo, mid, !splitX, leftMetrics),
+                      new BuildTask(builder, mid + 1, hi, !splitX, rightMetrics));
+            metrics.join(leftMetrics);
+            metrics.join(rightMetrics);
+        }
+    }
+
+    // Bounded max-heap of tree slots keyed by squared distance; the root is the k-th best
+    private static final class Neighbors {
+        final int[] slots;
+        final double[] distSq;
+        int size;
+
+        Neighbors(int k) {
+            slots = new int[k];
+            distSq = new double[k];
+        }
+
+        double bound() {
+            return size < slots.length ? Double.POSITIVE_INFINITY : distSq[0];
+        }
+
+        void offer(int slot, double d) {
+            if (size < slots.length) {
+                int i = size++;
+                while (i > 0 && distSq[(i - 1) / 2] < d) {
+                    slots[i] = slots[(i - 1) / 2];
+                    distSq[i] = distSq[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                slots[i] = slot;
+                distSq[i] = d;
+            } else if (d < distSq[0]) {
+                siftDown(slot, d);
+            }
+        }
+
+        void poll() {
+            size--;
+            if (size > 0) {
+                siftDown(slots[size], distSq[size]);
+            }
+        }
+
+        private void siftDown(int slot, double d) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && distSq[child + 1] > distSq[child]) child++;
+                if (distSq[child] <= d) break;
+                slots[i] = slots[child];
+                distSq[i] = distSq[child];
+                i = child;
+            }
+            slots[i] = slot;
+            distSq[i] = d;
+        }
+    }
+
+    private static final class Matches {
+        int[] ids = new int[16];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    // A bad ordering would silently build a corrupt tree, so each one must be a permutation of
+    // 0..n-1 that lists its coordinates in non-decreasing order; O(n) next to the O(n log n) build
+    private static void checkOrdering(double[] keys, int[] order, String axis) {
+        boolean[] seen = new boolean[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int id = order[i];
+            if (id < 0 || id >= order.length || seen[id]) {
+                throw new IllegalArgumentException("Ordering by " + axis + " must be a permutation of 0..n-1");
+            }
+            seen[id] = true;
+            if (i > 0 && keys[id] < keys[order[i - 1]]) {
+                throw new IllegalArgumentException("Ordering by " + axis + " must be sorted by " + axis);
+            }
+        }
+    }
+
+    private static int[] orderOf(double[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Coordinates must not be null");
+        }
+        return MergeSort.argsort(keys);
+    }
+
+    private static double[] xsOf(ClosestPair.Point[] points) {
+        if (points == null) {
+            throw new IllegalArgumentException("Points must not be null");
+        }
+        double[] xs = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].x;
+        }
+        return xs;
+    }
+
+    private static double[] ysOf(ClosestPair.Point[] points) {
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ys[i] = points[i].y;
+        }
+        return ys;
+    }
+}
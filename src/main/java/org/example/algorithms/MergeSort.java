@@ -1,71 +1,1045 @@
 package org.example.algorithms;
 
 import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
 import org.example.utils.ArrayUtils;
+import org.example.utils.ScratchPool;
+import org.example.utils.SimdKernels;
+import org.example.utils.SortingNetworks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 
 public class MergeSort {
-    private static final int INSERTION_SORT_CUTOFF = 16;
+    // Ranges up to this size are sorted directly: int ranges by a sorting network, other key
+    // types by insertion sort. Tunable with -Dmergesort.cutoff (2..16).
+    private static final int BASE_CASE_CUTOFF = SortingNetworks.cutoff("mergesort.cutoff", 16);
+    // Bottom-up base runs must line up with its power-of-two tiles and merge widths
+    private static final int BOTTOM_UP_RUN = Integer.highestOneBit(BASE_CASE_CUTOFF);
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final int MIN_RUN = 32;
+    // 2^15 ints: one tile of arr plus its aux range (256 KB) stays resident in a typical L2
+    private static final int CACHE_BLOCK = 1 << 15;
 
     public static void sort(int[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(int[] arr, MetricsBackend metrics) {
         if (arr == null || arr.length <= 1) return;
 
         // Allocate auxiliary array once to minimize allocations
         int[] aux = new int[arr.length];
-        Metrics.incrementAllocations(arr.length);
+        metrics.incrementAllocations(arr.length);
+
+        mergeSort(arr, aux, 0, arr.length - 1, metrics);
+    }
+
+    // Caller-owned scratch: nothing is allocated, scratch must hold at least arr.length ints
+    public static void sortWithScratch(int[] arr, int[] scratch) {
+        sortWithScratch(arr, scratch, Metrics.backend());
+    }
+
+    public static void sortWithScratch(int[] arr, int[] scratch, MetricsBackend metrics) {
+        if (scratch == null) {
+            throw new IllegalArgumentException("Scratch buffer must not be null");
+        }
+        if (arr == null || arr.length <= 1) return;
+        if (scratch.length < arr.length) {
+            throw new IllegalArgumentException("Scratch buffer must hold at least " + arr.length + " elements");
+        }
+        if (scratch == arr) {
+            throw new IllegalArgumentException("Scratch buffer must not be the array being sorted");
+        }
 
-        mergeSort(arr, aux, 0, arr.length - 1);
+        mergeSort(arr, scratch, 0, arr.length - 1, metrics);
     }
 
-    private static void mergeSort(int[] arr, int[] aux, int low, int high) {
-        Metrics.incrementDepth();
+    // Borrows the aux array from the calling thread's ScratchPool instead of allocating it
+    public static void sortPooled(int[] arr) {
+        sortPooled(arr, Metrics.backend());
+    }
+
+    public static void sortPooled(int[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
 
+        ScratchPool pool = ScratchPool.local();
+        int[] aux = pool.acquire(arr.length, metrics);
         try {
-            // Base case: use insertion sort for small subarrays
-            if (high - low + 1 <= INSERTION_SORT_CUTOFF) {
-                ArrayUtils.insertionSort(arr, low, high);
+            mergeSort(arr, aux, 0, arr.length - 1, metrics);
+        } finally {
+            pool.release(aux);
+        }
+    }
+
+    // Iterative bottom-up sort. Each pass merges from one buffer into the other (arr <-> aux),
+    // so every element moves once per level instead of being copied into aux first.
+    // Passes up to the cache block width run tile by tile while the tile is still cached.
+    public static void sortBottomUp(int[] arr) {
+        sortBottomUp(arr, CACHE_BLOCK, Metrics.backend());
+    }
+
+    public static void sortBottomUp(int[] arr, MetricsBackend metrics) {
+        sortBottomUp(arr, CACHE_BLOCK, metrics);
+    }
+
+    public static void sortBottomUp(int[] arr, int blockSize, MetricsBackend metrics) {
+        if (blockSize < BOTTOM_UP_RUN || Integer.bitCount(blockSize) != 1) {
+            throw new IllegalArgumentException("Block size must be a power of two >= " + BOTTOM_UP_RUN);
+        }
+        if (arr == null || arr.length <= 1) return;
+
+        int n = arr.length;
+        int[] aux = new int[n];
+        metrics.incrementAllocations(n);
+
+        // Base runs: sort fixed-width blocks in place
+        for (int low = 0; low < n; low += BOTTOM_UP_RUN) {
+            SortingNetworks.sort(arr, low, Math.min(low + BOTTOM_UP_RUN, n) - 1, metrics);
+        }
+
+        // Every tile runs the same number of passes so all of them end in the same buffer
+        int tile = Math.min(blockSize, Integer.highestOneBit(n - 1) << 1);
+        int[] src = arr;
+        int[] dst = aux;
+        for (int tileLow = 0; tileLow < n; tileLow += tile) {
+            int tileHigh = Math.min(tileLow + tile, n);
+            int[] from = arr;
+            int[] to = aux;
+            for (int width = BOTTOM_UP_RUN; width < tile; width <<= 1) {
+                mergePass(from, to, tileLow, tileHigh, width, metrics);
+                int[] temp = from;
+                from = to;
+                to = temp;
+            }
+            src = from;
+            dst = to;
+        }
+
+        // Wider passes span tiles and stream through memory
+        for (int width = tile; width < n; width <<= 1) {
+            mergePass(src, dst, 0, n, width, metrics);
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    public static void parallelSort(int[] arr) {
+        parallelSort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool) {
+        parallelSort(arr, pool, PARALLEL_THRESHOLD);
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold) {
+        parallelSort(arr, pool, sequentialThreshold, Metrics.backend());
+    }
+
+    // Metrics from the parallel path are not comparable with sort() on the same input.
+    // Comparisons also include the binary-search probes that split large merges and one
+    // "already ordered" check per task, and a merge skipped by that check costs nothing.
+    // Each task level and each sequential leaf counts as recursion depth; merge splitting
+    // does not. The depth therefore matches sort() only when metrics forks start at their
+    // parent's depth.
+    public static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold,
+                                    MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= BASE_CASE_CUTOFF) {
+            throw new IllegalArgumentException("Sequential threshold must exceed " + BASE_CASE_CUTOFF);
+        }
+        if (arr == null || arr.length <= 1) return;
+
+        // Single aux buffer shared by all tasks; each task only touches its own range
+        int[] aux = new int[arr.length];
+        metrics.incrementAllocations(arr.length);
+
+        pool.invoke(new SortTask(arr, aux, 0, arr.length - 1, sequentialThreshold, metrics));
+    }
+
+    // Primitive overloads: hand-specialized per type so no boxing or Comparator is involved
+
+    public static void sort(long[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(long[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        long[] aux = new long[arr.length];
+        metrics.incrementAllocations(arr.length);
+
+        mergeSort(arr, aux, 0, arr.length - 1, metrics);
+    }
+
+    public static void sort(double[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(double[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        // NaNs last and -0.0 before 0.0, matching Double.compare and Arrays.sort
+        int end = ArrayUtils.moveNaNsToEnd(arr);
+        int negativeZeros = ArrayUtils.clearNegativeZeros(arr, end);
+
+        if (end > 1) {
+            double[] aux = new double[end];
+            metrics.incrementAllocations(end);
+            mergeSort(arr, aux, 0, end - 1, metrics);
+        }
+        ArrayUtils.restoreNegativeZeros(arr, end, negativeZeros);
+    }
+
+    public static void sort(float[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(float[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        // NaNs last and -0.0 before 0.0, matching Float.compare and Arrays.sort
+        int end = ArrayUtils.moveNaNsToEnd(arr);
+        int negativeZeros = ArrayUtils.clearNegativeZeros(arr, end);
+
+        if (end > 1) {
+            float[] aux = new float[end];
+            metrics.incrementAllocations(end);
+            mergeSort(arr, aux, 0, end - 1, metrics);
+        }
+        ArrayUtils.restoreNegativeZeros(arr, end, negativeZeros);
+    }
+
+    // Argsort: sorts keys stably and applies the same permutation to payload in lockstep
+
+    public static void sort(int[] keys, int[] payload) {
+        sort(keys, payload, Metrics.backend());
+    }
+
+    public static void sort(int[] keys, int[] payload, MetricsBackend metrics) {
+        if (keys == null || payload == null || keys.length != payload.length) {
+            throw new IllegalArgumentException("Keys and payload must be non-null and the same length");
+        }
+        if (keys.length <= 1) return;
+
+        int[] auxKeys = new int[keys.length];
+        int[] auxPayload = new int[payload.length];
+        metrics.incrementAllocations(2L * keys.length);
+
+        mergeSort(keys, payload, auxKeys, auxPayload, 0, keys.length - 1, metrics);
+    }
+
+    // Indices that would sort keys; keys itself is left untouched
+    public static int[] argsort(int[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys must not be null");
+        }
+        int[] indices = new int[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        sort(keys.clone(), indices, Metrics.backend());
+        return indices;
+    }
+
+    public static void sort(long[] keys, int[] payload) {
+        sort(keys, payload, Metrics.backend());
+    }
+
+    public static void sort(long[] keys, int[] payload, MetricsBackend metrics) {
+        if (keys == null || payload == null || keys.length != payload.length) {
+            throw new IllegalArgumentException("Keys and payload must be non-null and the same length");
+        }
+        if (keys.length <= 1) return;
+
+        long[] auxKeys = new long[keys.length];
+        int[] auxPayload = new int[payload.length];
+        metrics.incrementAllocations(2L * keys.length);
+
+        mergeSort(keys, payload, auxKeys, auxPayload, 0, keys.length - 1, metrics);
+    }
+
+    // Indices that would sort keys; keys itself is left untouched
+    public static int[] argsort(long[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys must not be null");
+        }
+        int[] indices = new int[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        sort(keys.clone(), indices, Metrics.backend());
+        return indices;
+    }
+
+    public static void sort(double[] keys, int[] payload) {
+        sort(keys, payload, Metrics.backend());
+    }
+
+    public static void sort(double[] keys, int[] payload, MetricsBackend metrics) {
+        if (keys == null || payload == null || keys.length != payload.length) {
+            throw new IllegalArgumentException("Keys and payload must be non-null and the same length");
+        }
+        if (keys.length <= 1) return;
+
+        double[] auxKeys = new double[keys.length];
+        int[] auxPayload = new int[payload.length];
+        metrics.incrementAllocations(2L * keys.length);
+
+        mergeSort(keys, payload, auxKeys, auxPayload, 0, keys.length - 1, metrics);
+    }
+
+    // Indices that would sort keys; keys itself is left untouched
+    public static int[] argsort(double[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys must not be null");
+        }
+        int[] indices = new int[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        sort(keys.clone(), indices, Metrics.backend());
+        return indices;
+    }
+
+    // Float keys widen exactly to double, and Double.compare orders them as Float.compare does
+    // (NaNs last, -0.0 before 0.0), so the double path sorts the copy
+    public static int[] argsort(float[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys must not be null");
+        }
+        double[] wide = new double[keys.length];
+        int[] indices = new int[keys.length];
+        for (int i = 0; i < indices.length; i++) {
+            wide[i] = keys[i];
+            indices[i] = i;
+        }
+        sort(wide, indices, Metrics.backend());
+        return indices;
+    }
+
+    // Object sort: stable natural merge sort. Existing ascending or strictly descending
+    // runs are detected and kept, so presorted input costs O(n) comparisons
+
+    public static <T> void sort(T[] arr, Comparator<? super T> comparator) {
+        sort(arr, comparator, null, Metrics.backend());
+    }
+
+    public static <T> void sort(T[] arr, Comparator<? super T> comparator, T[] scratch) {
+        sort(arr, comparator, scratch, Metrics.backend());
+    }
+
+    public static <T> void sort(T[] arr, Comparator<? super T> comparator, T[] scratch, MetricsBackend metrics) {
+        if (arr == null || comparator == null) {
+            throw new IllegalArgumentException("Array and comparator must not be null");
+        }
+        if (arr.length <= 1) return;
+
+        if (scratch == null) {
+            scratch = Arrays.copyOf(arr, arr.length);
+            metrics.incrementAllocations(arr.length);
+        } else if (scratch.length < arr.length) {
+            throw new IllegalArgumentException("Scratch buffer must hold at least " + arr.length + " elements");
+        } else if (scratch == arr) {
+            throw new IllegalArgumentException("Scratch buffer must not be the array being sorted");
+        }
+
+        // Run boundaries come from the thread's pool, so a caller-supplied scratch means no
+        // allocation at all once the pool is warm
+        ScratchPool pool = ScratchPool.local();
+        int[] runs = pool.acquire(arr.length / MIN_RUN + 2, metrics);
+        try {
+            naturalMergeSort(arr, scratch, runs, comparator, metrics);
+        } finally {
+            pool.release(runs);
+        }
+    }
+
+    // Key-extracting sorts: each key is read once into a primitive array and the objects are
+    // reordered by a stable argsort, so the extractor runs n times instead of O(n log n)
+
+    public static <T> void sortByDoubleKey(T[] arr, ToDoubleFunction<? super T> key) {
+        sortByDoubleKey(arr, key, Metrics.backend());
+    }
+
+    public static <T> void sortByDoubleKey(T[] arr, ToDoubleFunction<? super T> key, MetricsBackend metrics) {
+        if (arr == null || key == null) {
+            throw new IllegalArgumentException("Array and key extractor must not be null");
+        }
+        if (arr.length <= 1) return;
+
+        double[] keys = new double[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            keys[i] = key.applyAsDouble(arr[i]);
+        }
+        metrics.incrementAllocations(arr.length);
+
+        sortByIndex(arr, keys, null, metrics);
+    }
+
+    public static <T> void sortByLongKey(T[] arr, ToLongFunction<? super T> key) {
+        sortByLongKey(arr, key, Metrics.backend());
+    }
+
+    public static <T> void sortByLongKey(T[] arr, ToLongFunction<? super T> key, MetricsBackend metrics) {
+        if (arr == null || key == null) {
+            throw new IllegalArgumentException("Array and key extractor must not be null");
+        }
+        if (arr.length <= 1) return;
+
+        long[] keys = new long[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            keys[i] = key.applyAsLong(arr[i]);
+        }
+        metrics.incrementAllocations(arr.length);
+
+        sortByIndex(arr, null, keys, metrics);
+    }
+
+    private static void mergeSort(int[] arr, int[] aux, int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            // Base case: branchless sorting network for small subarrays
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                SortingNetworks.sort(arr, low, high, metrics);
                 return;
             }
 
             int mid = low + (high - low) / 2;
 
             // Divide: recursively sort both halves
-            mergeSort(arr, aux, low, mid);
-            mergeSort(arr, aux, mid + 1, high);
+            mergeSort(arr, aux, low, mid, metrics);
+            mergeSort(arr, aux, mid + 1, high, metrics);
 
             // Conquer: merge the sorted halves
-            merge(arr, aux, low, mid, high);
+            merge(arr, aux, low, mid, high, metrics);
 
         } finally {
-            Metrics.decrementDepth();
+            metrics.decrementDepth();
         }
     }
 
-    private static void merge(int[] arr, int[] aux, int low, int mid, int high) {
+    private static void merge(int[] arr, int[] aux, int low, int mid, int high, MetricsBackend metrics) {
         // Copy to auxiliary array
         System.arraycopy(arr, low, aux, low, high - low + 1);
 
-        int i = low;      // left subarray pointer
-        int j = mid + 1;  // right subarray pointer
-        int k = low;      // merged array pointer
+        mergeRuns(aux, low, mid, mid + 1, high, arr, low, metrics);
+    }
+
+    // Merges each pair of adjacent width-sized runs of src[low..high) into dst
+    private static void mergePass(int[] src, int[] dst, int low, int high, int width, MetricsBackend metrics) {
+        for (int left = low; left < high; left += 2 * width) {
+            int mid = Math.min(left + width, high);
+            int right = Math.min(left + 2 * width, high);
+
+            if (mid == right) {
+                // Odd run out at the end of the range
+                System.arraycopy(src, left, dst, left, right - left);
+                continue;
+            }
+
+            metrics.incrementComparisons();
+            if (src[mid - 1] <= src[mid]) {
+                // Runs already in order: plain copy
+                System.arraycopy(src, left, dst, left, right - left);
+            } else {
+                mergeRuns(src, left, mid - 1, mid, right - 1, dst, left, metrics);
+            }
+        }
+    }
+
+    // Merges src[lo1..hi1] and src[lo2..hi2] into dst starting at dstLow
+    private static void mergeRuns(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dstLow,
+                                  MetricsBackend metrics) {
+        if (Math.min(hi1 - lo1, hi2 - lo2) + 1 >= SimdKernels.MIN_LENGTH && SimdKernels.isAvailable()) {
+            SimdKernels.merge(src, lo1, hi1, lo2, hi2, dst, dstLow, metrics);
+            return;
+        }
+        int i = lo1;      // left run pointer
+        int j = lo2;      // right run pointer
+        int k = dstLow;   // merged array pointer
+
+        while (i <= hi1 && j <= hi2) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        // One comparison per element emitted while both runs were non-empty
+        metrics.incrementComparisons(k - dstLow);
+
+        // Copy remaining elements
+        while (i <= hi1) {
+            dst[k++] = src[i++];
+        }
 
-        // Merge back to original array
+        while (j <= hi2) {
+            dst[k++] = src[j++];
+        }
+    }
+
+    private static void mergeSort(long[] arr, long[] aux, int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(arr, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(arr, aux, low, mid, metrics);
+            mergeSort(arr, aux, mid + 1, high, metrics);
+            merge(arr, aux, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(long[] arr, long[] aux, int low, int mid, int high, MetricsBackend metrics) {
+        System.arraycopy(arr, low, aux, low, high - low + 1);
+
+        int i = low, j = mid + 1, k = low;
         while (i <= mid && j <= high) {
-            Metrics.incrementComparisons();
             if (aux[i] <= aux[j]) {
                 arr[k++] = aux[i++];
             } else {
                 arr[k++] = aux[j++];
             }
         }
+        metrics.incrementComparisons(k - low);
 
-        // Copy remaining elements
         while (i <= mid) {
             arr[k++] = aux[i++];
         }
+        while (j <= high) {
+            arr[k++] = aux[j++];
+        }
+    }
+
+    private static void mergeSort(double[] arr, double[] aux, int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
 
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(arr, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(arr, aux, low, mid, metrics);
+            mergeSort(arr, aux, mid + 1, high, metrics);
+            merge(arr, aux, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(double[] arr, double[] aux, int low, int mid, int high, MetricsBackend metrics) {
+        System.arraycopy(arr, low, aux, low, high - low + 1);
+
+        int i = low, j = mid + 1, k = low;
+        while (i <= mid && j <= high) {
+            if (aux[i] <= aux[j]) {
+                arr[k++] = aux[i++];
+            } else {
+                arr[k++] = aux[j++];
+            }
+        }
+        metrics.incrementComparisons(k - low);
+
+        while (i <= mid) {
+            arr[k++] = aux[i++];
+        }
+        while (j <= high) {
+            arr[k++] = aux[j++];
+        }
+    }
+
+    private static void mergeSort(float[] arr, float[] aux, int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(arr, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(arr, aux, low, mid, metrics);
+            mergeSort(arr, aux, mid + 1, high, metrics);
+            merge(arr, aux, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(float[] arr, float[] aux, int low, int mid, int high, MetricsBackend metrics) {
+        System.arraycopy(arr, low, aux, low, high - low + 1);
+
+        int i = low, j = mid + 1, k = low;
+        while (i <= mid && j <= high) {
+            if (aux[i] <= aux[j]) {
+                arr[k++] = aux[i++];
+            } else {
+                arr[k++] = aux[j++];
+            }
+        }
+        metrics.incrementComparisons(k - low);
+
+        while (i <= mid) {
+            arr[k++] = aux[i++];
+        }
         while (j <= high) {
             arr[k++] = aux[j++];
         }
     }
+
+    // Package-private so callers with their own (possibly oversized) aux buffers can sort a range
+    static void mergeSort(int[] keys, int[] payload, int[] auxKeys, int[] auxPayload,
+                          int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(keys, payload, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(keys, payload, auxKeys, auxPayload, low, mid, metrics);
+            mergeSort(keys, payload, auxKeys, auxPayload, mid + 1, high, metrics);
+            merge(keys, payload, auxKeys, auxPayload, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(int[] keys, int[] payload, int[] auxKeys, int[] auxPayload,
+                              int low, int mid, int high, MetricsBackend metrics) {
+        int length = high - low + 1;
+        System.arraycopy(keys, low, auxKeys, low, length);
+        System.arraycopy(payload, low, auxPayload, low, length);
+
+        int i = low, j = mid + 1, k = low;
+        while (i <= mid && j <= high) {
+            if (auxKeys[i] <= auxKeys[j]) {
+                payload[k] = auxPayload[i];
+                keys[k++] = auxKeys[i++];
+            } else {
+                payload[k] = auxPayload[j];
+                keys[k++] = auxKeys[j++];
+            }
+        }
+        metrics.incrementComparisons(k - low);
+
+        while (i <= mid) {
+            payload[k] = auxPayload[i];
+            keys[k++] = auxKeys[i++];
+        }
+        while (j <= high) {
+            payload[k] = auxPayload[j];
+            keys[k++] = auxKeys[j++];
+        }
+    }
+
+    private static void mergeSort(long[] keys, int[] payload, long[] auxKeys, int[] auxPayload,
+                                  int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(keys, payload, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(keys, payload, auxKeys, auxPayload, low, mid, metrics);
+            mergeSort(keys, payload, auxKeys, auxPayload, mid + 1, high, metrics);
+            merge(keys, payload, auxKeys, auxPayload, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(long[] keys, int[] payload, long[] auxKeys, int[] auxPayload,
+                              int low, int mid, int high, MetricsBackend metrics) {
+        int length = high - low + 1;
+        System.arraycopy(keys, low, auxKeys, low, length);
+        System.arraycopy(payload, low, auxPayload, low, length);
+
+        int i = low, j = mid + 1, k = low;
+        while (i <= mid && j <= high) {
+            if (auxKeys[i] <= auxKeys[j]) {
+                payload[k] = auxPayload[i];
+                keys[k++] = auxKeys[i++];
+            } else {
+                payload[k] = auxPayload[j];
+                keys[k++] = auxKeys[j++];
+            }
+        }
+        metrics.incrementComparisons(k - low);
+
+        while (i <= mid) {
+            payload[k] = auxPayload[i];
+            keys[k++] = auxKeys[i++];
+        }
+        while (j <= high) {
+            payload[k] = auxPayload[j];
+            keys[k++] = auxKeys[j++];
+        }
+    }
+
+    private static void mergeSort(double[] keys, int[] payload, double[] auxKeys, int[] auxPayload,
+                                  int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            if (high - low + 1 <= BASE_CASE_CUTOFF) {
+                ArrayUtils.insertionSort(keys, payload, low, high, metrics);
+                return;
+            }
+
+            int mid = low + (high - low) / 2;
+            mergeSort(keys, payload, auxKeys, auxPayload, low, mid, metrics);
+            mergeSort(keys, payload, auxKeys, auxPayload, mid + 1, high, metrics);
+            merge(keys, payload, auxKeys, auxPayload, low, mid, high, metrics);
+
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void merge(double[] keys, int[] payload, double[] auxKeys, int[] auxPayload,
+                              int low, int mid, int high, MetricsBackend metrics) {
+        int length = high - low + 1;
+        System.arraycopy(keys, low, auxKeys, low, length);
+        System.arraycopy(payload, low, auxPayload, low, length);
+
+        int i = low, j = mid + 1, k = low;
+        while (i <= mid && j <= high) {
+            if (Double.compare(auxKeys[i], auxKeys[j]) <= 0) {
+                payload[k] = auxPayload[i];
+                keys[k++] = auxKeys[i++];
+            } else {
+                payload[k] = auxPayload[j];
+                keys[k++] = auxKeys[j++];
+            }
+        }
+        metrics.incrementComparisons(k - low);
+
+        while (i <= mid) {
+            payload[k] = auxPayload[i];
+            keys[k++] = auxKeys[i++];
+        }
+        while (j <= high) {
+            payload[k] = auxPayload[j];
+            keys[k++] = auxKeys[j++];
+        }
+    }
+
+    // Stable argsort of the extracted keys (exactly one of doubleKeys/longKeys is set), then
+    // arr is permuted into that order. The index buffers come from the thread's ScratchPool.
+    private static <T> void sortByIndex(T[] arr, double[] doubleKeys, long[] longKeys, MetricsBackend metrics) {
+        int n = arr.length;
+        ScratchPool pool = ScratchPool.local();
+        int[] order = pool.acquire(n, metrics);
+        int[] auxOrder = pool.acquire(n, metrics);
+        try {
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            if (doubleKeys != null) {
+                double[] auxKeys = new double[n];
+                metrics.incrementAllocations(n);
+                mergeSort(doubleKeys, order, auxKeys, auxOrder, 0, n - 1, metrics);
+            } else {
+                long[] auxKeys = new long[n];
+                metrics.incrementAllocations(n);
+                mergeSort(longKeys, order, auxKeys, auxOrder, 0, n - 1, metrics);
+            }
+            applyOrder(arr, order);
+        } finally {
+            pool.release(auxOrder);
+            pool.release(order);
+        }
+    }
+
+    // Rearranges arr in place so that arr[i] becomes the element previously at order[i], one
+    // permutation cycle at a time. Visited entries of order are marked by complementing them.
+    private static <T> void applyOrder(T[] arr, int[] order) {
+        for (int start = 0; start < arr.length; start++) {
+            if (order[start] < 0) continue;
+            T first = arr[start];
+            int i = start;
+            while (true) {
+                int from = order[i];
+                order[i] = ~from;
+                if (from == start) {
+                    arr[i] = first;
+                    break;
+                }
+                arr[i] = arr[from];
+                i = from;
+            }
+        }
+    }
+
+    // runs must hold at least n / MIN_RUN + 2 ints
+    private static <T> void naturalMergeSort(T[] arr, T[] scratch, int[] runs, Comparator<? super T> comparator,
+                                             MetricsBackend metrics) {
+        int n = arr.length;
+        long comparisons = 0;
+
+        // Pass 1: split into runs, reversing descending runs and padding short ones to MIN_RUN
+        int runCount = 0;
+        int start = 0;
+        while (start < n) {
+            int end = start + 1;
+            if (end < n) {
+                comparisons++;
+                if (comparator.compare(arr[end], arr[start]) < 0) {
+                    // Strictly descending, so reversing it keeps equal elements in order
+                    while (end + 1 < n) {
+                        comparisons++;
+                        if (comparator.compare(arr[end + 1], arr[end]) >= 0) break;
+                        end++;
+                    }
+                    reverse(arr, start, end);
+                } else {
+                    while (end + 1 < n) {
+                        comparisons++;
+                        if (comparator.compare(arr[end + 1], arr[end]) < 0) break;
+                        end++;
+                    }
+                }
+                end++;
+            }
+
+            int forcedEnd = Math.min(n, start + MIN_RUN);
+            if (end < forcedEnd) {
+                comparisons += binaryInsertionSort(arr, start, end, forcedEnd, comparator);
+                end = forcedEnd;
+            }
+            runs[runCount++] = start;
+            start = end;
+        }
+        runs[runCount] = n;
+
+        // Pass 2: merge adjacent runs bottom-up, alternating between arr and scratch
+        T[] src = arr;
+        T[] dst = scratch;
+        while (runCount > 1) {
+            int merged = 0;
+            for (int r = 0; r < runCount; r += 2) {
+                int low = runs[r];
+                if (r + 1 == runCount) {
+                    System.arraycopy(src, low, dst, low, n - low);
+                } else {
+                    comparisons += mergeRuns(src, low, runs[r + 1], runs[r + 2], dst, comparator);
+                }
+                runs[merged++] = low;
+            }
+            runs[merged] = n;
+            runCount = merged;
+
+            T[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    // Merges src[low..mid) and src[mid..high) into dst; returns comparisons made
+    private static <T> long mergeRuns(T[] src, int low, int mid, int high, T[] dst,
+                                      Comparator<? super T> comparator) {
+        // Runs already in order: a single comparison and a straight copy
+        if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, low, dst, low, high - low);
+            return 1;
+        }
+
+        long comparisons = 1;
+        int i = low, j = mid, k = low;
+        while (i < mid && j < high) {
+            comparisons++;
+            if (comparator.compare(src[i], src[j]) <= 0) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + (mid - i), high - j);
+        return comparisons;
+    }
+
+    // Extends the sorted prefix arr[low..sortedEnd) to arr[low..high); returns comparisons made
+    private static <T> long binaryInsertionSort(T[] arr, int low, int sortedEnd, int high,
+                                                Comparator<? super T> comparator) {
+        long comparisons = 0;
+        for (int i = sortedEnd; i < high; i++) {
+            T pivot = arr[i];
+            int left = low;
+            int right = i;
+            // Insert after any equal elements to stay stable
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (comparator.compare(pivot, arr[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(arr, left, arr, left + 1, i - left);
+            arr[left] = pivot;
+        }
+        return comparisons;
+    }
+
+    private static void reverse(Object[] arr, int low, int high) {
+        while (low < high) {
+            Object temp = arr[low];
+            arr[low++] = arr[high];
+            arr[high--] = temp;
+        }
+    }
+
+    // First index in src[low..high] whose value is >= key (or > key when strict)
+    private static int binarySearch(int[] src, int low, int high, int key, boolean strict,
+                                    MetricsBackend metrics) {
+        int lo = low;
+        int hi = high + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            metrics.incrementComparisons();
+            if (strict ? src[mid] <= key : src[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr, aux;
+        private final int low, high, threshold;
+        private final MetricsBackend metrics;
+
+        SortTask(int[] arr, int[] aux, int low, int high, int threshold, MetricsBackend metrics) {
+            this.arr = arr;
+            this.aux = aux;
+            this.low = low;
+            this.high = high;
+            this.threshold = threshold;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low + 1 <= threshold) {
+                mergeSort(arr, aux, low, high, metrics);
+                return;
+            }
+
+            metrics.incrementDepth();
+            try {
+                int mid = low + (high - low) / 2;
+
+                // Divide: sort both halves in parallel on disjoint aux ranges
+                MetricsBackend leftMetrics = metrics.fork();
+                MetricsBackend rightMetrics = metrics.fork();
+                invokeAll(new SortTask(arr, aux, low, mid, threshold, leftMetrics),
+                          new SortTask(arr, aux, mid + 1, high, threshold, rightMetrics));
+                metrics.join(leftMetrics);
+                metrics.join(rightMetrics);
+
+                // Skip the merge entirely if the halves are already in order
+                metrics.incrementComparisons();
+                if (arr[mid] <= arr[mid + 1]) return;
+
+                // Conquer: copy into aux and merge back in parallel
+                System.arraycopy(arr, low, aux, low, high - low + 1);
+                new MergeTask(aux, low, mid, mid + 1, high, arr, low, threshold, metrics).compute();
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+    }
+
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src, dst;
+        private final int lo1, hi1, lo2, hi2, dstLow, threshold;
+        private final MetricsBackend metrics;
+
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dstLow, int threshold,
+                  MetricsBackend metrics) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.dstLow = dstLow;
+            this.threshold = threshold;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1 + 1;
+            int len2 = hi2 - lo2 + 1;
+            if (len1 + len2 <= threshold || len1 == 0 || len2 == 0) {
+                mergeRuns(src, lo1, hi1, lo2, hi2, dst, dstLow, metrics);
+                return;
+            }
+
+            // Split the longer run at its midpoint and binary-search the split in the other,
+            // keeping equal keys from the left run ahead of those from the right run
+            int split1, split2;
+            if (len1 >= len2) {
+                split1 = lo1 + len1 / 2;
+                split2 = binarySearch(src, lo2, hi2, src[split1], false, metrics);
+            } else {
+                split2 = lo2 + len2 / 2;
+                split1 = binarySearch(src, lo1, hi1, src[split2], true, metrics);
+            }
+            int dstSplit = dstLow + (split1 - lo1) + (split2 - lo2);
+
+            MetricsBackend leftMetrics = metrics.fork();
+            MetricsBackend rightMetrics = metrics.fork();
+            invokeAll(new MergeTask(src, lo1, split1 - 1, lo2, split2 - 1, dst, dstLow, threshold, leftMetrics),
+                      new MergeTask(src, split1, hi1, split2, hi2, dst, dstSplit, threshold, rightMetrics));
+            metrics.join(leftMetrics);
+            metrics.join(rightMetrics);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package org.example.algorithms;
+
+import org.example.utils.MetricsBackend;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+// Data-parallel passes over fixed chunks: runs a body once per chunk index on the pool. Each
+// chunk reports into its own fork of metrics, and the forks are joined once every chunk is done.
+final class ParallelChunks {
+
+    interface Body {
+        void run(int chunk, MetricsBackend metrics);
+    }
+
+    private ParallelChunks() {
+    }
+
+    static void run(ForkJoinPool pool, int chunks, MetricsBackend metrics, Body body) {
+        MetricsBackend[] forks = new MetricsBackend[chunks];
+        for (int c = 0; c < chunks; c++) {
+            forks[c] = metrics.fork();
+        }
+        pool.invoke(new ChunkTask(0, chunks, body, forks));
+        for (MetricsBackend fork : forks) {
+            metrics.join(fork);
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final Body body;
+        private final MetricsBackend[] forks;
+
+        ChunkTask(int from, int to, Body body, MetricsBackend[] forks) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+            this.forks = forks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.run(from, forks[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid, body, forks), new ChunkTask(mid, to, body, forks));
+        }
+    }
+}
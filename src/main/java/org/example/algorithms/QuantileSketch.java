@@ -0,0 +1,216 @@
+package org.example.algorithms;
+
+import org.example.utils.MetricsBackend;
+import org.example.utils.NoOpMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+// KLL-style mergeable quantile sketch. Level h holds items of weight 2^h; when a level fills
+// up it is sorted and every other item (random offset) is promoted, halving its size.
+// Capacities shrink geometrically towards level 0, so memory stays O(k + log n) items and the
+// rank error is roughly O(1/k). Until the first compaction the sketch holds the raw stream and
+// answers exactly through DeterministicSelect. Not thread-safe; merge per-thread sketches.
+// Queries work in scratch buffers kept between calls and report into the sketch's own metrics
+// backend (no-op unless one is passed in), never the global Metrics counters.
+public class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+
+    private static final double DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private final MetricsBackend metrics;
+    private int[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private long count;
+    // Query scratch: retained values, their levels, and MergeSort's aux arrays for both
+    private int[] values = new int[0];
+    private int[] weightLevels = new int[0];
+    private int[] auxValues = new int[0];
+    private int[] auxLevels = new int[0];
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        this(k, NoOpMetrics.INSTANCE);
+    }
+
+    public QuantileSketch(int k, MetricsBackend metrics) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics backend must not be null");
+        }
+        this.k = k;
+        this.metrics = metrics;
+        this.levels = new int[1][];
+        this.sizes = new int[1];
+        this.levels[0] = new int[k];
+        this.levelCount = 1;
+    }
+
+    public void add(int value) {
+        append(0, value);
+        count++;
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Sketch must not be null");
+        }
+        // Snapshot the other sketch's shape: merging a sketch into itself grows the very
+        // levels being read
+        int otherLevels = other.levelCount;
+        int[] otherSizes = Arrays.copyOf(other.sizes, otherLevels);
+        while (levelCount < otherLevels) {
+            addLevel();
+        }
+        for (int h = 0; h < otherLevels; h++) {
+            for (int i = 0; i < otherSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isExact() {
+        return levelCount == 1;
+    }
+
+    // Value at quantile q in [0, 1], e.g. 0.5 for p50 or 0.99 for p99
+    public int quantile(double q) {
+        if (q < 0.0 || q > 1.0) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]");
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+
+        if (isExact()) {
+            int n = sizes[0];
+            ensureScratch(n);
+            System.arraycopy(levels[0], 0, values, 0, n);
+            return DeterministicSelect.select(values, 0, n - 1, exactRank(q, n), metrics);
+        }
+
+        // Weighted walk over all retained items in value order
+        int retained = 0;
+        for (int h = 0; h < levelCount; h++) {
+            retained += sizes[h];
+        }
+        ensureScratch(retained);
+        int pos = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[pos] = levels[h][i];
+                weightLevels[pos++] = h;
+            }
+        }
+        MergeSort.mergeSort(values, weightLevels, auxValues, auxLevels, 0, retained - 1, metrics);
+
+        double target = q * count;
+        long cumulative = 0;
+        for (int i = 0; i < retained; i++) {
+            cumulative += 1L << weightLevels[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return values[retained - 1];
+    }
+
+    // Estimated fraction of the stream that is <= value
+    public double rank(int value) {
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+        long weight = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) {
+                    weight += 1L << h;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    static int exactRank(double q, int n) {
+        return (int) Math.min(n - 1, Math.max(0, (long) Math.ceil(q * n) - 1));
+    }
+
+    private void ensureScratch(int n) {
+        if (values.length >= n) return;
+        int length = Math.max(n, 2 * values.length);
+        values = new int[length];
+        weightLevels = new int[length];
+        auxValues = new int[length];
+        auxLevels = new int[length];
+        metrics.incrementAllocations(4L * length);
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private void compress() {
+        for (int h = 0; h < levelCount; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 == levelCount) {
+                    addLevel();
+                }
+                compact(h);
+            }
+        }
+    }
+
+    private void compact(int level) {
+        int[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        // An odd item out stays behind so the promoted weight is exact
+        int even = size & ~1;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = offset; i < even; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (even < size) {
+            items[0] = items[size - 1];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+    }
+
+    private void append(int level, int value) {
+        int[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, Math.max(MIN_CAPACITY, items.length * 2));
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levelCount + 1);
+        sizes = Arrays.copyOf(sizes, levelCount + 1);
+        levels[levelCount] = new int[MIN_CAPACITY];
+        levelCount++;
+    }
+}
@@ -1,43 +1,464 @@
 package org.example.algorithms;
 
 import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
 import org.example.utils.ArrayUtils;
+import org.example.utils.SortingNetworks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 public class QuickSort {
+    // Ranges up to this size are sorted directly: int ranges by a sorting network, other key
+    // types by insertion sort. Tunable with -Dquicksort.cutoff (2..16).
+    private static final int BASE_CASE_CUTOFF = SortingNetworks.cutoff("quicksort.cutoff", 16);
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    public enum Partitioning {
+        LOMUTO,     // single random pivot, two-way partition
+        THREE_WAY,  // Dutch national flag: <, ==, > pivot; equal keys are never revisited
+        DUAL_PIVOT  // two random pivots, three ranges, plus an equal-key sweep of the middle
+    }
 
     public static void sort(int[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(int[] arr, MetricsBackend metrics) {
+        sort(arr, Partitioning.LOMUTO, metrics);
+    }
+
+    public static void sort(int[] arr, Partitioning partitioning) {
+        sort(arr, partitioning, Metrics.backend());
+    }
+
+    public static void sort(int[] arr, Partitioning partitioning, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        switch (partitioning) {
+            case THREE_WAY:
+                quickSort3Way(arr, 0, arr.length - 1, metrics);
+                break;
+            case DUAL_PIVOT:
+                dualPivotQuickSort(arr, 0, arr.length - 1, metrics);
+                break;
+            default:
+                quickSort(arr, 0, arr.length - 1, metrics);
+        }
+    }
+
+    // Primitive overloads use three-way partitioning; hand-specialized so nothing is boxed
+
+    public static void sort(long[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(long[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+        quickSort3Way(arr, 0, arr.length - 1, metrics);
+    }
+
+    public static void sort(double[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(double[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        // NaNs last and -0.0 before 0.0, matching Double.compare and Arrays.sort
+        int end = ArrayUtils.moveNaNsToEnd(arr);
+        int negativeZeros = ArrayUtils.clearNegativeZeros(arr, end);
+        quickSort3Way(arr, 0, end - 1, metrics);
+        ArrayUtils.restoreNegativeZeros(arr, end, negativeZeros);
+    }
+
+    public static void sort(float[] arr) {
+        sort(arr, Metrics.backend());
+    }
+
+    public static void sort(float[] arr, MetricsBackend metrics) {
+        if (arr == null || arr.length <= 1) return;
+
+        // NaNs last and -0.0 before 0.0, matching Float.compare and Arrays.sort
+        int end = ArrayUtils.moveNaNsToEnd(arr);
+        int negativeZeros = ArrayUtils.clearNegativeZeros(arr, end);
+        quickSort3Way(arr, 0, end - 1, metrics);
+        ArrayUtils.restoreNegativeZeros(arr, end, negativeZeros);
+    }
+
+    public static void parallelSort(int[] arr) {
+        parallelSort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool) {
+        parallelSort(arr, pool, PARALLEL_THRESHOLD, Metrics.backend());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold) {
+        parallelSort(arr, pool, sequentialThreshold, Metrics.backend());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold,
+                                    MetricsBackend metrics) {
+        // Introsort budget: beyond ~2*log2(n) partitioning levels the input is treated as adversarial
+        int depthLimit = arr == null ? 0 : 2 * (31 - Integer.numberOfLeadingZeros(arr.length));
+        parallelSort(arr, pool, sequentialThreshold, depthLimit, metrics);
+    }
+
+    // Explicit partitioning budget, so tests can drive both heapsort fallbacks
+    static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold, int depthLimit,
+                             MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= BASE_CASE_CUTOFF) {
+            throw new IllegalArgumentException("Sequential threshold must exceed " + BASE_CASE_CUTOFF);
+        }
         if (arr == null || arr.length <= 1) return;
-        quickSort(arr, 0, arr.length - 1);
+
+        pool.invoke(new SortTask(arr, 0, arr.length - 1, depthLimit, sequentialThreshold, metrics));
     }
 
-    private static void quickSort(int[] arr, int low, int high) {
+    private static void quickSort(int[] arr, int low, int high, MetricsBackend metrics) {
         while (low < high) {
             // Randomized pivot selection
             int pivotIndex = ArrayUtils.randomPivot(low, high);
-            int pivot = ArrayUtils.partition(arr, low, high, pivotIndex);
+            int pivot = ArrayUtils.partition(arr, low, high, pivotIndex, metrics);
 
             // Recurse on smaller partition, iterate on larger
             // This ensures O(log n) stack depth even in worst case
             if (pivot - low < high - pivot) {
                 // Left partition is smaller - recurse on it
-                Metrics.incrementDepth();
+                metrics.incrementDepth();
                 try {
-                    quickSort(arr, low, pivot - 1);
+                    quickSort(arr, low, pivot - 1, metrics);
                 } finally {
-                    Metrics.decrementDepth();
+                    metrics.decrementDepth();
                 }
                 low = pivot + 1; // Tail recursion elimination for right partition
             } else {
                 // Right partition is smaller - recurse on it
-                Metrics.incrementDepth();
+                metrics.incrementDepth();
                 try {
-                    quickSort(arr, pivot + 1, high);
+                    quickSort(arr, pivot + 1, high, metrics);
                 } finally {
-                    Metrics.decrementDepth();
+                    metrics.decrementDepth();
                 }
                 high = pivot - 1; // Tail recursion elimination for left partition
             }
         }
     }
+
+    private static void quickSort3Way(int[] arr, int low, int high, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            long bounds = ArrayUtils.partition3Way(arr, low, high, arr[ArrayUtils.randomPivot(low, high)], metrics);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+
+            // The run of keys equal to the pivot is final; recurse on the smaller side
+            if (lt - low < high - gt) {
+                recurse3Way(arr, low, lt - 1, metrics);
+                low = gt + 1;
+            } else {
+                recurse3Way(arr, gt + 1, high, metrics);
+                high = lt - 1;
+            }
+        }
+        SortingNetworks.sort(arr, low, high, metrics);
+    }
+
+    private static void quickSort3Way(long[] arr, int low, int high, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            long pivot = arr[ArrayUtils.randomPivot(low, high)];
+
+            int lt = low, i = low, gt = high;
+            long comparisons = 0;
+            while (i <= gt) {
+                long value = arr[i];
+                comparisons++;
+                if (value < pivot) {
+                    ArrayUtils.swap(arr, lt++, i++);
+                } else {
+                    comparisons++;
+                    if (value > pivot) {
+                        ArrayUtils.swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+
+            metrics.incrementDepth();
+            try {
+                if (lt - low < high - gt) {
+                    quickSort3Way(arr, low, lt - 1, metrics);
+                    low = gt + 1;
+                } else {
+                    quickSort3Way(arr, gt + 1, high, metrics);
+                    high = lt - 1;
+                }
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+        ArrayUtils.insertionSort(arr, low, high, metrics);
+    }
+
+    private static void quickSort3Way(double[] arr, int low, int high, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            double pivot = arr[ArrayUtils.randomPivot(low, high)];
+
+            int lt = low, i = low, gt = high;
+            long comparisons = 0;
+            while (i <= gt) {
+                double value = arr[i];
+                comparisons++;
+                if (value < pivot) {
+                    ArrayUtils.swap(arr, lt++, i++);
+                } else {
+                    comparisons++;
+                    if (value > pivot) {
+                        ArrayUtils.swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+
+            metrics.incrementDepth();
+            try {
+                if (lt - low < high - gt) {
+                    quickSort3Way(arr, low, lt - 1, metrics);
+                    low = gt + 1;
+                } else {
+                    quickSort3Way(arr, gt + 1, high, metrics);
+                    high = lt - 1;
+                }
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+        ArrayUtils.insertionSort(arr, low, high, metrics);
+    }
+
+    private static void quickSort3Way(float[] arr, int low, int high, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            float pivot = arr[ArrayUtils.randomPivot(low, high)];
+
+            int lt = low, i = low, gt = high;
+            long comparisons = 0;
+            while (i <= gt) {
+                float value = arr[i];
+                comparisons++;
+                if (value < pivot) {
+                    ArrayUtils.swap(arr, lt++, i++);
+                } else {
+                    comparisons++;
+                    if (value > pivot) {
+                        ArrayUtils.swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+
+            metrics.incrementDepth();
+            try {
+                if (lt - low < high - gt) {
+                    quickSort3Way(arr, low, lt - 1, metrics);
+                    low = gt + 1;
+                } else {
+                    quickSort3Way(arr, gt + 1, high, metrics);
+                    high = lt - 1;
+                }
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+        ArrayUtils.insertionSort(arr, low, high, metrics);
+    }
+
+    private static void recurse3Way(int[] arr, int low, int high, MetricsBackend metrics) {
+        metrics.incrementDepth();
+        try {
+            quickSort3Way(arr, low, high, metrics);
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void dualPivotQuickSort(int[] arr, int low, int high, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            // Two random pivots moved to the ends, smaller one first
+            ArrayUtils.swap(arr, low, ArrayUtils.randomPivot(low, high));
+            ArrayUtils.swap(arr, high, ArrayUtils.randomPivot(low + 1, high));
+            long comparisons = 1;
+            if (arr[low] > arr[high]) {
+                ArrayUtils.swap(arr, low, high);
+            }
+            int p = arr[low];
+            int q = arr[high];
+
+            // Invariant: (low, lt) < p, [lt, k) in [p, q], (gt, high) > q
+            int lt = low + 1, gt = high - 1, k = low + 1;
+            while (k <= gt) {
+                int value = arr[k];
+                comparisons++;
+                if (value < p) {
+                    ArrayUtils.swap(arr, k, lt++);
+                } else {
+                    comparisons++;
+                    if (value > q) {
+                        while (k < gt && arr[gt] > q) {
+                            comparisons++;
+                            gt--;
+                        }
+                        ArrayUtils.swap(arr, k, gt--);
+                        comparisons++;
+                        if (arr[k] < p) {
+                            ArrayUtils.swap(arr, k, lt++);
+                        }
+                    }
+                }
+                k++;
+            }
+            lt--;
+            gt++;
+            ArrayUtils.swap(arr, low, lt);
+            ArrayUtils.swap(arr, high, gt);
+
+            // Now [low, lt) < p, arr[lt] == p, (lt, gt) in [p, q], arr[gt] == q, (gt, high] > q
+            int midLow = lt + 1;
+            int midHigh = gt - 1;
+            if (p == q) {
+                // Middle range holds only copies of the pivot
+                midHigh = midLow - 1;
+            } else if (midHigh - midLow > (high - low) / 2) {
+                // Large middle usually means many keys equal to a pivot: pack them at the edges
+                int i = midLow;
+                while (i <= midHigh) {
+                    comparisons++;
+                    if (arr[i] == p) {
+                        ArrayUtils.swap(arr, i++, midLow++);
+                    } else {
+                        comparisons++;
+                        if (arr[i] == q) {
+                            ArrayUtils.swap(arr, i, midHigh--);
+                        } else {
+                            i++;
+                        }
+                    }
+                }
+            }
+            metrics.incrementComparisons(comparisons);
+
+            // Recurse on the two smaller ranges and keep looping on the largest
+            int leftSize = lt - low;
+            int midSize = midHigh - midLow + 1;
+            int rightSize = high - gt;
+            if (leftSize >= midSize && leftSize >= rightSize) {
+                recurseDualPivot(arr, midLow, midHigh, metrics);
+                recurseDualPivot(arr, gt + 1, high, metrics);
+                high = lt - 1;
+            } else if (rightSize >= midSize) {
+                recurseDualPivot(arr, low, lt - 1, metrics);
+                recurseDualPivot(arr, midLow, midHigh, metrics);
+                low = gt + 1;
+            } else {
+                recurseDualPivot(arr, low, lt - 1, metrics);
+                recurseDualPivot(arr, gt + 1, high, metrics);
+                low = midLow;
+                high = midHigh;
+            }
+        }
+        SortingNetworks.sort(arr, low, high, metrics);
+    }
+
+    private static void recurseDualPivot(int[] arr, int low, int high, MetricsBackend metrics) {
+        if (low >= high) return;
+        metrics.incrementDepth();
+        try {
+            dualPivotQuickSort(arr, low, high, metrics);
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void introSort(int[] arr, int low, int high, int depthLimit, MetricsBackend metrics) {
+        while (high - low + 1 > BASE_CASE_CUTOFF) {
+            if (depthLimit-- == 0) {
+                // Too many unbalanced partitions: fall back to heapsort for a hard O(n log n) bound
+                ArrayUtils.heapSort(arr, low, high, metrics);
+                return;
+            }
+
+            long bounds = ArrayUtils.partition3Way(arr, low, high, arr[ArrayUtils.randomPivot(low, high)], metrics);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+
+            metrics.incrementDepth();
+            try {
+                if (lt - low < high - gt) {
+                    introSort(arr, low, lt - 1, depthLimit, metrics);
+                    low = gt + 1;
+                } else {
+                    introSort(arr, gt + 1, high, depthLimit, metrics);
+                    high = lt - 1;
+                }
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+        SortingNetworks.sort(arr, low, high, metrics);
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int low, high, depthLimit, threshold;
+        private final MetricsBackend metrics;
+
+        SortTask(int[] arr, int low, int high, int depthLimit, int threshold, MetricsBackend metrics) {
+            this.arr = arr;
+            this.low = low;
+            this.high = high;
+            this.depthLimit = depthLimit;
+            this.threshold = threshold;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low + 1 <= threshold) {
+                introSort(arr, low, high, depthLimit, metrics);
+                return;
+            }
+            if (depthLimit == 0) {
+                ArrayUtils.heapSort(arr, low, high, metrics);
+                return;
+            }
+
+            metrics.incrementDepth();
+            try {
+                long bounds = ArrayUtils.partition3Way(arr, low, high, arr[ArrayUtils.randomPivot(low, high)], metrics);
+                int lt = (int) (bounds >>> 32);
+                int gt = (int) bounds;
+
+                // Both sides are disjoint, so they can be sorted concurrently
+                MetricsBackend leftMetrics = metrics.fork();
+                MetricsBackend rightMetrics = metrics.fork();
+                invokeAll(new SortTask(arr, low, lt - 1, depthLimit - 1, threshold, leftMetrics),
+                          new SortTask(arr, gt + 1, high, depthLimit - 1, threshold, rightMetrics));
+                metrics.join(leftMetrics);
+                metrics.join(rightMetrics);
+            } finally {
+                metrics.decrementDepth();
+            }
+        }
+    }
 }
@@ -0,0 +1,522 @@
+package org.example.algorithms;
+
+import org.example.utils.ArrayUtils;
+import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+import org.example.utils.MetricsCounter;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+// Radix sorts for int and long keys, in the same signed order as Arrays.sort. Digits are taken
+// from the key with its sign bit flipped, so negative keys come first. No key comparisons are
+// made; the work is reported as RADIX_PASSES and BYTES_MOVED, and skipped digits cost nothing.
+//
+// - LSD: stable and needs an n-sized buffer. A single read pass builds the histograms for every
+//   digit, and any digit that is the same for all keys is skipped. 8-, 11- or 16-bit digits.
+// - MSD: in-place American flag sort on 8-bit digits. Buckets are permuted by cycle leading,
+//   constant digits are skipped per bucket, and small buckets go to insertion sort.
+// - Parallel: LSD with 8-bit digits. Per-chunk histograms are built in parallel, one sequential
+//   prefix sum gives each chunk its own write offsets, and the chunks scatter in parallel.
+public class RadixSort {
+    private static final int DEFAULT_DIGIT_BITS = 11;
+    // Below this many keys a bucket, or the whole input, is insertion sorted
+    private static final int SMALL_CUTOFF = 64;
+    // LSD beat American flag sort by about 2x on random keys at every size measured (1M-16M),
+    // so AUTO only falls back to the in-place sort when the buffer would crowd the heap
+    private static final int HEAP_FRACTION = 4;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Smallest slice worth handing to its own worker during parallel passes
+    private static final int MIN_CHUNK = 1 << 14;
+    // American flag level layout: 257 bucket bounds, then 256 write cursors
+    private static final int NEXT = 257;
+
+    public enum Strategy {
+        LSD,   // stable, 11-bit digits, n-sized buffer
+        MSD,   // in place, 8-bit digits
+        AUTO   // LSD, or MSD when the buffer would take over a quarter of the free heap
+    }
+
+    public static void sort(int[] arr) {
+        sort(arr, Strategy.AUTO, Metrics.backend());
+    }
+
+    public static void sort(int[] arr, MetricsBackend metrics) {
+        sort(arr, Strategy.AUTO, metrics);
+    }
+
+    public static void sort(int[] arr, Strategy strategy) {
+        sort(arr, strategy, Metrics.backend());
+    }
+
+    public static void sort(int[] arr, Strategy strategy, MetricsBackend metrics) {
+        if (arr == null || strategy == null) {
+            throw new IllegalArgumentException("Array and strategy must not be null");
+        }
+        if (arr.length <= SMALL_CUTOFF) {
+            ArrayUtils.insertionSort(arr, 0, arr.length - 1, metrics);
+        } else if (useMsd(strategy, 4L * arr.length)) {
+            americanFlag(arr, 0, arr.length, 24, levels(4, metrics), metrics);
+        } else {
+            lsd(arr, DEFAULT_DIGIT_BITS, metrics);
+        }
+    }
+
+    // LSD with an explicit digit width: 8 (4 passes, 256 buckets), 11 (3 passes, 2048 buckets)
+    // or 16 (2 passes, 65536 buckets)
+    public static void sortLsd(int[] arr, int digitBits, MetricsBackend metrics) {
+        if (arr == null) {
+            throw new IllegalArgumentException("Array must not be null");
+        }
+        checkDigitBits(digitBits);
+        if (arr.length > 1) {
+            lsd(arr, digitBits, metrics);
+        }
+    }
+
+    public static void sort(long[] arr) {
+        sort(arr, Strategy.AUTO, Metrics.backend());
+    }
+
+    public static void sort(long[] arr, MetricsBackend metrics) {
+        sort(arr, Strategy.AUTO, metrics);
+    }
+
+    public static void sort(long[] arr, Strategy strategy) {
+        sort(arr, strategy, Metrics.backend());
+    }
+
+    public static void sort(long[] arr, Strategy strategy, MetricsBackend metrics) {
+        if (arr == null || strategy == null) {
+            throw new IllegalArgumentException("Array and strategy must not be null");
+        }
+        if (arr.length <= SMALL_CUTOFF) {
+            ArrayUtils.insertionSort(arr, 0, arr.length - 1, metrics);
+        } else if (useMsd(strategy, 8L * arr.length)) {
+            americanFlag(arr, 0, arr.length, 56, levels(8, metrics), metrics);
+        } else {
+            lsd(arr, DEFAULT_DIGIT_BITS, metrics);
+        }
+    }
+
+    // LSD with an explicit digit width: 8 (8 passes), 11 (6 passes) or 16 (4 passes)
+    public static void sortLsd(long[] arr, int digitBits, MetricsBackend metrics) {
+        if (arr == null) {
+            throw new IllegalArgumentException("Array must not be null");
+        }
+        checkDigitBits(digitBits);
+        if (arr.length > 1) {
+            lsd(arr, digitBits, metrics);
+        }
+    }
+
+    public static void parallelSort(int[] arr) {
+        parallelSort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool) {
+        parallelSort(arr, pool, PARALLEL_THRESHOLD, Metrics.backend());
+    }
+
+    public static void parallelSort(int[] arr, ForkJoinPool pool, int sequentialThreshold,
+                                    MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= SMALL_CUTOFF) {
+            throw new IllegalArgumentException("Sequential threshold must exceed " + SMALL_CUTOFF);
+        }
+        if (arr == null) {
+            throw new IllegalArgumentException("Array must not be null");
+        }
+        if (arr.length <= sequentialThreshold) {
+            sort(arr, Strategy.LSD, metrics);
+            return;
+        }
+
+        int n = arr.length;
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, n / MIN_CHUNK));
+        int[] offsets = new int[chunks << 8];
+        int[] src = arr;
+        int[] dst = new int[n];
+        metrics.incrementAllocations(n + offsets.length);
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            int digitShift = shift;
+            int[] from = src;
+            int[] to = dst;
+
+            Arrays.fill(offsets, 0);
+            ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+                int base = chunk << 8;
+                for (int i = chunkStart(n, chunks, chunk), end = chunkStart(n, chunks, chunk + 1); i < end; i++) {
+                    offsets[base + digit(from[i], digitShift, 0xFF)]++;
+                }
+            });
+            if (!prefixChunkOffsets(offsets, chunks, n)) continue;
+
+            ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+                int base = chunk << 8;
+                for (int i = chunkStart(n, chunks, chunk), end = chunkStart(n, chunks, chunk + 1); i < end; i++) {
+                    int value = from[i];
+                    to[offsets[base + digit(value, digitShift, 0xFF)]++] = value;
+                }
+            });
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 4L * n);
+            src = to;
+            dst = from;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 4L * n);
+        }
+    }
+
+    public static void parallelSort(long[] arr) {
+        parallelSort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(long[] arr, ForkJoinPool pool) {
+        parallelSort(arr, pool, PARALLEL_THRESHOLD, Metrics.backend());
+    }
+
+    public static void parallelSort(long[] arr, ForkJoinPool pool, int sequentialThreshold,
+                                    MetricsBackend metrics) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        if (sequentialThreshold <= SMALL_CUTOFF) {
+            throw new IllegalArgumentException("Sequential threshold must exceed " + SMALL_CUTOFF);
+        }
+        if (arr == null) {
+            throw new IllegalArgumentException("Array must not be null");
+        }
+        if (arr.length <= sequentialThreshold) {
+            sort(arr, Strategy.LSD, metrics);
+            return;
+        }
+
+        int n = arr.length;
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, n / MIN_CHUNK));
+        int[] offsets = new int[chunks << 8];
+        long[] src = arr;
+        long[] dst = new long[n];
+        metrics.incrementAllocations(n + offsets.length);
+
+        for (int shift = 0; shift < 64; shift += 8) {
+            int digitShift = shift;
+            long[] from = src;
+            long[] to = dst;
+
+            Arrays.fill(offsets, 0);
+            ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+                int base = chunk << 8;
+                for (int i = chunkStart(n, chunks, chunk), end = chunkStart(n, chunks, chunk + 1); i < end; i++) {
+                    offsets[base + digit(from[i], digitShift, 0xFF)]++;
+                }
+            });
+            if (!prefixChunkOffsets(offsets, chunks, n)) continue;
+
+            ParallelChunks.run(pool, chunks, metrics, (chunk, chunkMetrics) -> {
+                int base = chunk << 8;
+                for (int i = chunkStart(n, chunks, chunk), end = chunkStart(n, chunks, chunk + 1); i < end; i++) {
+                    long value = from[i];
+                    to[offsets[base + digit(value, digitShift, 0xFF)]++] = value;
+                }
+            });
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 8L * n);
+            src = to;
+            dst = from;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 8L * n);
+        }
+    }
+
+    private static void lsd(int[] arr, int digitBits, MetricsBackend metrics) {
+        int n = arr.length;
+        int radix = 1 << digitBits;
+        int mask = radix - 1;
+        int passes = (32 + digitBits - 1) / digitBits;
+
+        // One read pass builds the histogram of every digit
+        int[] counts = new int[passes * radix];
+        for (int value : arr) {
+            for (int p = 0; p < passes; p++) {
+                counts[p * radix + digit(value, p * digitBits, mask)]++;
+            }
+        }
+
+        int[] src = arr;
+        int[] dst = null;
+        for (int p = 0; p < passes; p++) {
+            int shift = p * digitBits;
+            int base = p * radix;
+            // A digit shared by every key would leave the order as it is
+            if (counts[base + digit(src[0], shift, mask)] == n) continue;
+
+            toOffsets(counts, base, radix);
+            if (dst == null) {
+                dst = new int[n];
+                metrics.incrementAllocations(n);
+            }
+            for (int i = 0; i < n; i++) {
+                int value = src[i];
+                dst[counts[base + digit(value, shift, mask)]++] = value;
+            }
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 4L * n);
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 4L * n);
+        }
+        metrics.incrementAllocations(counts.length);
+    }
+
+    private static void lsd(long[] arr, int digitBits, MetricsBackend metrics) {
+        int n = arr.length;
+        int radix = 1 << digitBits;
+        int mask = radix - 1;
+        int passes = (64 + digitBits - 1) / digitBits;
+
+        int[] counts = new int[passes * radix];
+        for (long value : arr) {
+            for (int p = 0; p < passes; p++) {
+                counts[p * radix + digit(value, p * digitBits, mask)]++;
+            }
+        }
+
+        long[] src = arr;
+        long[] dst = null;
+        for (int p = 0; p < passes; p++) {
+            int shift = p * digitBits;
+            int base = p * radix;
+            if (counts[base + digit(src[0], shift, mask)] == n) continue;
+
+            toOffsets(counts, base, radix);
+            if (dst == null) {
+                dst = new long[n];
+                metrics.incrementAllocations(n);
+            }
+            for (int i = 0; i < n; i++) {
+                long value = src[i];
+                dst[counts[base + digit(value, shift, mask)]++] = value;
+            }
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 8L * n);
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 8L * n);
+        }
+        metrics.incrementAllocations(counts.length);
+    }
+
+    // American flag sort of arr[lo, hi) on the digit at shift and every lower one. Each level
+    // (digit position) owns one array from levels(): bucket d of the current range is
+    // [start[d], start[d + 1]), and start[NEXT + d] is the bucket's next free slot while
+    // permuting. Children only touch deeper levels, so a level's bounds survive recursion.
+    private static void americanFlag(int[] arr, int lo, int hi, int shift, int[][] bounds,
+                                     MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            int[] start = bounds[(24 - shift) >>> 3];
+            while (true) {
+                if (hi - lo <= SMALL_CUTOFF) {
+                    ArrayUtils.insertionSort(arr, lo, hi - 1, metrics);
+                    return;
+                }
+
+                Arrays.fill(start, 0, NEXT, 0);
+                for (int i = lo; i < hi; i++) {
+                    start[digit(arr[i], shift, 0xFF) + 1]++;
+                }
+                // Same digit everywhere: nothing to permute, go straight to the next one
+                if (start[digit(arr[lo], shift, 0xFF) + 1] != hi - lo) break;
+                if (shift == 0) return;
+                shift -= 8;
+                start = bounds[(24 - shift) >>> 3];
+            }
+
+            start[0] = lo;
+            for (int d = 0; d < 256; d++) {
+                start[d + 1] += start[d];
+            }
+
+            // Cycle leading: take the first misplaced key of each bucket and keep swapping it
+            // into the next free slot of the bucket it belongs to until the cycle closes
+            System.arraycopy(start, 0, start, NEXT, 256);
+            long moved = 0;
+            for (int b = 0; b < 256; b++) {
+                int end = start[b + 1];
+                while (start[NEXT + b] < end) {
+                    int value = arr[start[NEXT + b]];
+                    int d = digit(value, shift, 0xFF);
+                    while (d != b) {
+                        int displaced = arr[start[NEXT + d]];
+                        arr[start[NEXT + d]++] = value;
+                        value = displaced;
+                        d = digit(value, shift, 0xFF);
+                        moved++;
+                    }
+                    arr[start[NEXT + b]++] = value;
+                    moved++;
+                }
+            }
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 4L * moved);
+
+            if (shift > 0) {
+                for (int d = 0; d < 256; d++) {
+                    if (start[d + 1] - start[d] > 1) {
+                        americanFlag(arr, start[d], start[d + 1], shift - 8, bounds, metrics);
+                    }
+                }
+            }
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static void americanFlag(long[] arr, int lo, int hi, int shift, int[][] bounds,
+                                     MetricsBackend metrics) {
+        metrics.incrementDepth();
+
+        try {
+            int[] start = bounds[(56 - shift) >>> 3];
+            while (true) {
+                if (hi - lo <= SMALL_CUTOFF) {
+                    ArrayUtils.insertionSort(arr, lo, hi - 1, metrics);
+                    return;
+                }
+
+                Arrays.fill(start, 0, NEXT, 0);
+                for (int i = lo; i < hi; i++) {
+                    start[digit(arr[i], shift, 0xFF) + 1]++;
+                }
+                if (start[digit(arr[lo], shift, 0xFF) + 1] != hi - lo) break;
+                if (shift == 0) return;
+                shift -= 8;
+                start = bounds[(56 - shift) >>> 3];
+            }
+
+            start[0] = lo;
+            for (int d = 0; d < 256; d++) {
+                start[d + 1] += start[d];
+            }
+
+            System.arraycopy(start, 0, start, NEXT, 256);
+            long moved = 0;
+            for (int b = 0; b < 256; b++) {
+                int end = start[b + 1];
+                while (start[NEXT + b] < end) {
+                    long value = arr[start[NEXT + b]];
+                    int d = digit(value, shift, 0xFF);
+                    while (d != b) {
+                        long displaced = arr[start[NEXT + d]];
+                        arr[start[NEXT + d]++] = value;
+                        value = displaced;
+                        d = digit(value, shift, 0xFF);
+                        moved++;
+                    }
+                    arr[start[NEXT + b]++] = value;
+                    moved++;
+                }
+            }
+            metrics.incrementCounter(MetricsCounter.RADIX_PASSES, 1);
+            metrics.incrementCounter(MetricsCounter.BYTES_MOVED, 8L * moved);
+
+            if (shift > 0) {
+                for (int d = 0; d < 256; d++) {
+                    if (start[d + 1] - start[d] > 1) {
+                        americanFlag(arr, start[d], start[d + 1], shift - 8, bounds, metrics);
+                    }
+                }
+            }
+        } finally {
+            metrics.decrementDepth();
+        }
+    }
+
+    private static int[][] levels(int count, MetricsBackend metrics) {
+        metrics.incrementAllocations((long) count * (NEXT + 256));
+        return new int[count][NEXT + 256];
+    }
+
+    private static boolean useMsd(Strategy strategy, long bufferBytes) {
+        if (strategy != Strategy.AUTO) {
+            return strategy == Strategy.MSD;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return bufferBytes > free / HEAP_FRACTION;
+    }
+
+    // Flipping the sign bit maps signed order onto unsigned digit order
+    private static int digit(int value, int shift, int mask) {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & mask;
+    }
+
+    private static int digit(long value, int shift, int mask) {
+        return (int) ((value ^ Long.MIN_VALUE) >>> shift) & mask;
+    }
+
+    // Turns counts[base, base + radix) into exclusive prefix sums
+    private static void toOffsets(int[] counts, int base, int radix) {
+        int sum = 0;
+        for (int d = base; d < base + radix; d++) {
+            int count = counts[d];
+            counts[d] = sum;
+            sum += count;
+        }
+    }
+
+    // Per-chunk histograms, chunk-major, become per-chunk write offsets: digit by digit, and
+    // within a digit in chunk order, which keeps the scatter stable. Returns false when a
+    // single digit holds all n keys, so the pass can be skipped.
+    private static boolean prefixChunkOffsets(int[] offsets, int chunks, int n) {
+        for (int d = 0; d < 256; d++) {
+            int total = 0;
+            for (int c = 0; c < chunks; c++) {
+                total += offsets[(c << 8) + d];
+            }
+            if (total == n) return false;
+        }
+
+        int sum = 0;
+        for (int d = 0; d < 256; d++) {
+            for (int c = 0; c < chunks; c++) {
+                int count = offsets[(c << 8) + d];
+                offsets[(c << 8) + d] = sum;
+                sum += count;
+            }
+        }
+        return true;
+    }
+
+    private static int chunkStart(int n, int chunks, int chunk) {
+        return (int) ((long) n * chunk / chunks);
+    }
+
+    private static void checkDigitBits(int digitBits) {
+        if (digitBits != 8 && digitBits != 11 && digitBits != 16) {
+            throw new IllegalArgumentException("Digit width must be 8, 11 or 16 bits");
+        }
+    }
+}
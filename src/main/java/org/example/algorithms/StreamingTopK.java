@@ -0,0 +1,161 @@
+package org.example.algorithms;
+
+import org.example.utils.MetricsBackend;
+import org.example.utils.NoOpMetrics;
+
+import java.util.Arrays;
+
+
+// Keeps the k largest values seen on an unbounded stream in O(k) memory using a min-heap
+// whose root is the current admission threshold. Instances are not thread-safe: give each
+// thread its own and combine them with merge(). Batch selection reports into the instance's
+// metrics backend (no-op unless one is passed in), never the global Metrics counters.
+public class StreamingTopK {
+    private final int[] heap;
+    private final MetricsBackend metrics;
+    private int size;
+    private long count;
+    private int[] candidates;  // addAll's bounded buffer of values above the threshold
+
+    public StreamingTopK(int k) {
+        this(k, NoOpMetrics.INSTANCE);
+    }
+
+    public StreamingTopK(int k, MetricsBackend metrics) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics backend must not be null");
+        }
+        this.heap = new int[k];
+        this.metrics = metrics;
+    }
+
+    public void add(int value) {
+        count++;
+        offer(value);
+    }
+
+    private void offer(int value) {
+        if (size < heap.length) {
+            heap[size] = value;
+            siftUp(size++);
+        } else if (value > heap[0]) {
+            heap[0] = value;
+            siftDown(0);
+        }
+    }
+
+    // Bulk path: values above the heap's threshold collect in a buffer of 4k. When it fills,
+    // DeterministicSelect finds its k-th largest value and only those at or above it touch the
+    // heap, which raises the threshold for the rest of the batch. Memory stays O(k).
+    public void addAll(int[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values must not be null");
+        }
+        int k = heap.length;
+        count += values.length;
+        if (values.length <= 4 * k) {
+            for (int value : values) {
+                offer(value);
+            }
+            return;
+        }
+
+        if (candidates == null) {
+            candidates = new int[4 * k];
+            metrics.incrementAllocations(candidates.length);
+        }
+        int filled = 0;
+        for (int value : values) {
+            if (size < k) {
+                offer(value);
+            } else if (value > heap[0]) {
+                candidates[filled++] = value;
+                if (filled == candidates.length) {
+                    flush(filled);
+                    filled = 0;
+                }
+            }
+        }
+        flush(filled);
+    }
+
+    private void flush(int filled) {
+        int k = heap.length;
+        if (filled <= k) {
+            for (int i = 0; i < filled; i++) {
+                offer(candidates[i]);
+            }
+            return;
+        }
+        int threshold = DeterministicSelect.select(candidates, 0, filled - 1, filled - k, metrics);
+        for (int i = 0; i < filled; i++) {
+            if (candidates[i] >= threshold) {
+                offer(candidates[i]);
+            }
+        }
+    }
+
+    public void merge(StreamingTopK other) {
+        long seen = count + other.count;
+        for (int i = 0; i < other.size; i++) {
+            add(other.heap[i]);
+        }
+        count = seen;
+    }
+
+    // Current top values, largest first
+    public int[] toSortedArray() {
+        int[] result = Arrays.copyOf(heap, size);
+        Arrays.sort(result);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    // Smallest value currently in the top k (meaningful once size() == k)
+    public int threshold() {
+        if (size == 0) {
+            throw new IllegalStateException("No values added yet");
+        }
+        return heap[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    private void siftUp(int i) {
+        int value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private void siftDown(int i) {
+        int value = heap[i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
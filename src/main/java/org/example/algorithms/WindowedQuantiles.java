@@ -0,0 +1,58 @@
+package org.example.algorithms;
+
+import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+
+import java.util.Arrays;
+
+
+// Exact quantiles over the most recent `capacity` values of a stream. Values live in a ring
+// buffer; each query copies the window into a preallocated scratch array and runs
+// DeterministicSelect on it, so memory is O(capacity) and, once the window is full, queries
+// allocate nothing.
+public class WindowedQuantiles {
+    private final int[] window;
+    private final int[] scratch;
+    private final MetricsBackend metrics;
+    private int next;
+    private int size;
+
+    public WindowedQuantiles(int capacity) {
+        this(capacity, Metrics.backend());
+    }
+
+    public WindowedQuantiles(int capacity, MetricsBackend metrics) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.window = new int[capacity];
+        this.scratch = new int[capacity];
+        this.metrics = metrics;
+    }
+
+    public void add(int value) {
+        window[next] = value;
+        next = (next + 1) % window.length;
+        if (size < window.length) {
+            size++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int quantile(double q) {
+        if (q < 0.0 || q > 1.0) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]");
+        }
+        if (size == 0) {
+            throw new IllegalStateException("Window is empty");
+        }
+
+        // Order inside the window does not matter for selection, so copy the live prefix
+        System.arraycopy(window, 0, scratch, 0, size);
+        int[] view = size == scratch.length ? scratch : Arrays.copyOf(scratch, size);
+        return DeterministicSelect.select(view, QuantileSketch.exactRank(q, size), metrics);
+    }
+}
@@ -9,6 +9,9 @@ import org.openjdk.jmh.infra.Blackhole;
 
 import org.example.algorithms.*;
 import org.example.utils.ArrayUtils;
+import org.example.utils.Metrics;
+import org.example.utils.MetricsContext;
+import org.example.utils.NoOpMetrics;
 
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
@@ -28,12 +31,20 @@ public class AlgorithmsBenchmark {
     private int[] randomArray;
     private int[] worstCaseArray;
     private ClosestPair.Point[] randomPoints;
+    private double[] randomXs;
+    private double[] randomYs;
 
     @Setup(Level.Trial)
     public void setup() {
         randomArray = ArrayUtils.generateRandomArray(size, size * 10);
         worstCaseArray = ArrayUtils.generateWorstCaseArray(size);
         randomPoints = ClosestPair.generateRandomPoints(size, 1000.0);
+        randomXs = new double[size];
+        randomYs = new double[size];
+        for (int i = 0; i < size; i++) {
+            randomXs[i] = randomPoints[i].x;
+            randomYs[i] = randomPoints[i].y;
+        }
     }
 
     @Benchmark
@@ -43,6 +54,20 @@ public class AlgorithmsBenchmark {
         bh.consume(arr); // Prevent dead code elimination
     }
 
+    @Benchmark
+    public void benchmarkMergeSortPooled(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        MergeSort.sortPooled(arr);
+        bh.consume(arr); // Prevent dead code elimination
+    }
+
+    @Benchmark
+    public void benchmarkParallelMergeSort(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        MergeSort.parallelSort(arr);
+        bh.consume(arr); // Prevent dead code elimination
+    }
+
     @Benchmark
     public void benchmarkQuickSort(Blackhole bh) {
         int[] arr = ArrayUtils.copyArray(randomArray);
@@ -50,6 +75,13 @@ public class AlgorithmsBenchmark {
         bh.consume(arr); // Prevent dead code elimination
     }
 
+    @Benchmark
+    public void benchmarkParallelQuickSort(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        QuickSort.parallelSort(arr);
+        bh.consume(arr); // Prevent dead code elimination
+    }
+
     @Benchmark
     public void benchmarkQuickSortWorstCase(Blackhole bh) {
         int[] arr = ArrayUtils.copyArray(worstCaseArray);
@@ -64,18 +96,225 @@ public class AlgorithmsBenchmark {
         bh.consume(arr); // Prevent dead code elimination
     }
 
+    // Radix sort variants against benchmarkJavaSort and the comparison sorts, per size
+    @State(Scope.Benchmark)
+    public static class DigitWidth {
+        @Param({"8", "11", "16"})
+        public int bits;
+    }
+
+    @Benchmark
+    public void benchmarkRadixSortLsd(DigitWidth width, Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        RadixSort.sortLsd(arr, width.bits, Metrics.backend());
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkRadixSortMsd(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        RadixSort.sort(arr, RadixSort.Strategy.MSD);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkParallelRadixSort(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        RadixSort.parallelSort(arr);
+        bh.consume(arr);
+    }
+
     @Benchmark
     public int benchmarkDeterministicSelect() {
         int[] arr = ArrayUtils.copyArray(randomArray);
         return DeterministicSelect.select(arr, size / 2); // Return result to prevent DCE
     }
 
+    @Benchmark
+    public int benchmarkIntroSelect() {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        return DeterministicSelect.select(arr, size / 2, DeterministicSelect.Strategy.INTROSELECT);
+    }
+
+    @Benchmark
+    public int benchmarkParallelSelect() {
+        // parallelSelect leaves its input untouched, so no defensive copy is needed
+        return DeterministicSelect.parallelSelect(randomArray, size / 2);
+    }
+
+    @Benchmark
+    public int benchmarkIntroSelectWorstCase() {
+        int[] arr = ArrayUtils.copyArray(worstCaseArray);
+        return DeterministicSelect.select(arr, size / 2, DeterministicSelect.Strategy.INTROSELECT);
+    }
+
     @Benchmark
     public ClosestPair.PointPair benchmarkClosestPair() {
         ClosestPair.Point[] points = Arrays.copyOf(randomPoints, randomPoints.length);
         return ClosestPair.findClosestPair(points); // Return result to prevent DCE
     }
 
+    @Benchmark
+    public ClosestPair.PointPair benchmarkParallelClosestPair() {
+        return ClosestPair.findClosestPairParallel(randomPoints); // Inputs are not modified
+    }
+
+    // Grid vs divide-and-conquer on the same SoA input: the size parameter shows the crossover
+    @Benchmark
+    public int[] benchmarkClosestPairGrid() {
+        return ClosestPair.findClosestPair(randomXs, randomYs, ClosestPair.Strategy.GRID);
+    }
+
+    @Benchmark
+    public int[] benchmarkClosestPairAuto() {
+        return ClosestPair.findClosestPair(randomXs, randomYs, ClosestPair.Strategy.AUTO);
+    }
+
+    @Benchmark
+    public ClosestPair.PointPair[] benchmarkKClosestPairs() {
+        return ClosestPair.findKClosestPairs(randomPoints, 100); // Inputs are not modified
+    }
+
+    @Benchmark
+    public int[] benchmarkAllNearestNeighbors() {
+        return ClosestPair.allNearestNeighbors(randomXs, randomYs);
+    }
+
+    @Benchmark
+    public int[] benchmarkClosestPairSoA() {
+        return ClosestPair.findClosestPair(randomXs, randomYs); // Inputs are not modified
+    }
+
+    // N-dimensional points in a flat buffer; dims=2 should track benchmarkClosestPairAuto
+    @State(Scope.Benchmark)
+    public static class FlatPointsInput {
+        @Param({"2", "3", "4", "8"})
+        public int dims;
+
+        public double[] coords;
+
+        @Setup(Level.Trial)
+        public void setup(AlgorithmsBenchmark benchmark) {
+            java.util.Random random = new java.util.Random(42);
+            coords = new double[benchmark.size * dims];
+            for (int i = 0; i < coords.length; i++) {
+                coords[i] = random.nextDouble() * 1000;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] benchmarkClosestPairND(FlatPointsInput input) {
+        return ClosestPairND.findClosestPair(input.coords, input.dims, ClosestPairND.StandardMetric.EUCLIDEAN);
+    }
+
+    @Benchmark
+    public int[] benchmarkClosestPairNDDivideAndConquer(FlatPointsInput input) {
+        return ClosestPairND.findClosestPair(input.coords, input.dims, ClosestPairND.StandardMetric.EUCLIDEAN,
+            ClosestPair.Strategy.DIVIDE_AND_CONQUER, Metrics.backend());
+    }
+
+    // Instrumented vs uninstrumented: each benchmark runs in its own fork, so the
+    // NoOp variants see a monomorphic backend and the JIT removes the counters
+
+    @Benchmark
+    public void benchmarkMergeSortContext(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        MetricsContext metrics = new MetricsContext();
+        MergeSort.sort(arr, metrics);
+        bh.consume(arr);
+        bh.consume(metrics);
+    }
+
+    @Benchmark
+    public void benchmarkMergeSortUninstrumented(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        MergeSort.sort(arr, NoOpMetrics.INSTANCE);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortUninstrumented(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        QuickSort.sort(arr, NoOpMetrics.INSTANCE);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public int benchmarkDeterministicSelectUninstrumented() {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        return DeterministicSelect.select(arr, size / 2, NoOpMetrics.INSTANCE);
+    }
+
+    @Benchmark
+    public int benchmarkIntroSelectUninstrumented() {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        return DeterministicSelect.select(arr, size / 2, DeterministicSelect.Strategy.INTROSELECT,
+            NoOpMetrics.INSTANCE);
+    }
+
+    @Benchmark
+    public ClosestPair.PointPair benchmarkClosestPairUninstrumented() {
+        ClosestPair.Point[] points = Arrays.copyOf(randomPoints, randomPoints.length);
+        return ClosestPair.findClosestPair(points, NoOpMetrics.INSTANCE);
+    }
+
+    // Low-cardinality inputs (status codes, bucketed timestamps): few distinct keys, many repeats
+    @State(Scope.Benchmark)
+    public static class LowCardinalityInput {
+        @Param({"4", "64", "4096"})
+        public int distinctKeys;
+
+        public int[] keys;
+
+        @Setup(Level.Trial)
+        public void setup(AlgorithmsBenchmark benchmark) {
+            keys = ArrayUtils.generateRandomArray(benchmark.size, distinctKeys);
+        }
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortLowCardinality(LowCardinalityInput input, Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(input.keys);
+        QuickSort.sort(arr);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortThreeWayLowCardinality(LowCardinalityInput input, Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(input.keys);
+        QuickSort.sort(arr, QuickSort.Partitioning.THREE_WAY);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortDualPivotLowCardinality(LowCardinalityInput input, Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(input.keys);
+        QuickSort.sort(arr, QuickSort.Partitioning.DUAL_PIVOT);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkJavaSortLowCardinality(LowCardinalityInput input, Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(input.keys);
+        Arrays.sort(arr);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortThreeWay(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        QuickSort.sort(arr, QuickSort.Partitioning.THREE_WAY);
+        bh.consume(arr);
+    }
+
+    @Benchmark
+    public void benchmarkQuickSortDualPivot(Blackhole bh) {
+        int[] arr = ArrayUtils.copyArray(randomArray);
+        QuickSort.sort(arr, QuickSort.Partitioning.DUAL_PIVOT);
+        bh.consume(arr);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(AlgorithmsBenchmark.class.getSimpleName())
@@ -0,0 +1,103 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.example.utils.ArrayUtils;
+import org.example.utils.NoOpMetrics;
+import org.example.utils.SortingNetworks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+// Base cases in isolation: BLOCKS independent blocks of `size` random ints are sorted per
+// operation, so scores are per block. Random data is the worst case for insertion sort's
+// branches and makes no difference to a network; "sorted" shows the opposite end.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class BaseCaseBenchmark {
+    private static final int BLOCKS = 1024;
+
+    @Param({"4", "5", "8", "12", "16"})
+    private int size;
+
+    @Param({"random", "sorted"})
+    private String order;
+
+    private int[] source;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = ArrayUtils.generateRandomArray(size * BLOCKS, Integer.MAX_VALUE);
+        if (order.equals("sorted")) {
+            for (int low = 0; low < source.length; low += size) {
+                Arrays.sort(source, low, low + size);
+            }
+        }
+        work = new int[source.length];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS)
+    public void insertionSort(Blackhole bh) {
+        System.arraycopy(source, 0, work, 0, work.length);
+        for (int low = 0; low < work.length; low += size) {
+            ArrayUtils.insertionSort(work, low, low + size - 1, NoOpMetrics.INSTANCE);
+        }
+        bh.consume(work);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS)
+    public void sortingNetwork(Blackhole bh) {
+        System.arraycopy(source, 0, work, 0, work.length);
+        for (int low = 0; low < work.length; low += size) {
+            SortingNetworks.sort(work, low, low + size - 1, NoOpMetrics.INSTANCE);
+        }
+        bh.consume(work);
+    }
+
+    // Group medians as medianOfMedians needs them: full sort vs the 7-comparator network.
+    // One group of 5 per block regardless of size.
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS)
+    public void medianOf5BySorting(Blackhole bh) {
+        System.arraycopy(source, 0, work, 0, work.length);
+        int sum = 0;
+        for (int low = 0; low + 5 <= work.length; low += size) {
+            ArrayUtils.insertionSort(work, low, low + 4, NoOpMetrics.INSTANCE);
+            sum += work[low + 2];
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS)
+    public void medianOf5Network(Blackhole bh) {
+        System.arraycopy(source, 0, work, 0, work.length);
+        int sum = 0;
+        for (int low = 0; low + 5 <= work.length; low += size) {
+            SortingNetworks.medianOf5(work, low, NoOpMetrics.INSTANCE);
+            sum += work[low + 2];
+        }
+        bh.consume(sum);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BaseCaseBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.example.algorithms.KdTree;
+import org.example.algorithms.MergeSort;
+import org.example.utils.NoOpMetrics;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+
+// KdTree query throughput (one query per op, cycling through random query points)
+// and sequential vs parallel bulk build from presorted orderings.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class KdTreeBenchmark {
+    private static final int QUERIES = 1024;  // power of two, see next()
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private double[] xs, ys;
+    private int[] byX, byY;
+    private double[] queryX, queryY;
+    private KdTree tree;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = random.nextDouble() * 1000.0;
+            ys[i] = random.nextDouble() * 1000.0;
+        }
+        byX = MergeSort.argsort(xs);
+        byY = MergeSort.argsort(ys);
+        tree = new KdTree(xs, ys);
+
+        queryX = new double[QUERIES];
+        queryY = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryX[i] = random.nextDouble() * 1000.0;
+            queryY[i] = random.nextDouble() * 1000.0;
+        }
+    }
+
+    private int next() {
+        return cursor++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public int benchmarkNearest() {
+        int q = next();
+        return tree.nearest(queryX[q], queryY[q]);
+    }
+
+    @Benchmark
+    public int[] benchmarkKNearest10() {
+        int q = next();
+        return tree.kNearest(queryX[q], queryY[q], 10);
+    }
+
+    @Benchmark
+    public int[] benchmarkRange() {
+        // ~10x10 window: about 0.01% of the points
+        int q = next();
+        return tree.range(queryX[q], queryY[q], queryX[q] + 10.0, queryY[q] + 10.0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public KdTree benchmarkBuild() {
+        return KdTree.fromPresorted(xs, ys, byX.clone(), byY.clone());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public KdTree benchmarkParallelBuild() {
+        return KdTree.parallelBuild(xs, ys, byX.clone(), byY.clone(), ForkJoinPool.commonPool(),
+            NoOpMetrics.INSTANCE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(KdTreeBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
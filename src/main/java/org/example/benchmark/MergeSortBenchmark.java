@@ -0,0 +1,63 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.example.algorithms.MergeSort;
+import org.example.utils.ArrayUtils;
+import org.example.utils.NoOpMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+
+// Large-array MergeSort layouts: recursive top-down vs bottom-up ping-pong.
+// Sizes go up to 100M ints (400 MB per copy), hence the larger heap.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+public class MergeSortBenchmark {
+
+    @Param({"1000000", "10000000", "100000000"})
+    private int size;
+
+    private int[] randomArray;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        randomArray = ArrayUtils.generateRandomArray(size, Integer.MAX_VALUE);
+        work = new int[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        System.arraycopy(randomArray, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public void benchmarkTopDown(Blackhole bh) {
+        MergeSort.sort(work, NoOpMetrics.INSTANCE);
+        bh.consume(work);
+    }
+
+    @Benchmark
+    public void benchmarkBottomUp(Blackhole bh) {
+        MergeSort.sortBottomUp(work, NoOpMetrics.INSTANCE);
+        bh.consume(work);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MergeSortBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
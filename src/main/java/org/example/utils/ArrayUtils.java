@@ -1,6 +1,7 @@
 package org.example.utils;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class ArrayUtils {
     private static final Random random = new Random();
@@ -17,6 +18,18 @@ public class ArrayUtils {
         arr[j] = temp;
     }
 
+    public static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    public static void swap(float[] arr, int i, int j) {
+        float temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
     public static void shuffle(int[] arr) {
         for (int i = arr.length - 1; i > 0; i--) {
             int j = random.nextInt(i + 1);
@@ -25,32 +38,289 @@ public class ArrayUtils {
     }
 
     public static int randomPivot(int low, int high) {
-        return low + random.nextInt(high - low + 1);
+        // Thread-local source so concurrent and fork/join callers do not contend on one seed
+        return low + ThreadLocalRandom.current().nextInt(high - low + 1);
     }
 
     public static void insertionSort(int[] arr, int low, int high) {
+        insertionSort(arr, low, high, Metrics.backend());
+    }
+
+    public static void insertionSort(int[] arr, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0; // counted locally, reported once
         for (int i = low + 1; i <= high; i++) {
             int key = arr[i];
             int j = i - 1;
             while (j >= low && arr[j] > key) {
-                Metrics.incrementComparisons();
+                comparisons++;
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++; // for the failed comparison
+            }
+            arr[j + 1] = key;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    public static void heapSort(int[] arr, int low, int high, MetricsBackend metrics) {
+        int n = high - low + 1;
+        long comparisons = 0;
+
+        // Build a max-heap over arr[low..high], then repeatedly move the max to the end
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            comparisons += siftDown(arr, low, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, low, low + end);
+            comparisons += siftDown(arr, low, 0, end);
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    // Sifts heap node i down within a heap of the given size rooted at base; returns comparisons made
+    private static int siftDown(int[] arr, int base, int i, int size) {
+        int comparisons = 0;
+        int value = arr[base + i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size) {
+                comparisons++;
+                if (arr[base + child + 1] > arr[base + child]) {
+                    child++;
+                }
+            }
+            comparisons++;
+            if (arr[base + child] <= value) {
+                break;
+            }
+            arr[base + i] = arr[base + child];
+            i = child;
+        }
+        arr[base + i] = value;
+        return comparisons;
+    }
+
+    // Hand-specialized copies for the primitive overloads of MergeSort and QuickSort
+
+    public static void insertionSort(long[] arr, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            long key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                comparisons++;
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++;
+            }
+            arr[j + 1] = key;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    public static void insertionSort(double[] arr, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            double key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                comparisons++;
                 arr[j + 1] = arr[j];
                 j--;
             }
             if (j >= low) {
-                Metrics.incrementComparisons(); // for the failed comparison
+                comparisons++;
             }
             arr[j + 1] = key;
         }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    public static void insertionSort(float[] arr, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            float key = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > key) {
+                comparisons++;
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++;
+            }
+            arr[j + 1] = key;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    // Lockstep variants: payload[i] travels with keys[i] (argsort)
+
+    public static void insertionSort(int[] keys, int[] payload, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            int key = keys[i];
+            int value = payload[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                comparisons++;
+                keys[j + 1] = keys[j];
+                payload[j + 1] = payload[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++;
+            }
+            keys[j + 1] = key;
+            payload[j + 1] = value;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    public static void insertionSort(long[] keys, int[] payload, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            int value = payload[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                comparisons++;
+                keys[j + 1] = keys[j];
+                payload[j + 1] = payload[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++;
+            }
+            keys[j + 1] = key;
+            payload[j + 1] = value;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    public static void insertionSort(double[] keys, int[] payload, int low, int high, MetricsBackend metrics) {
+        long comparisons = 0;
+        for (int i = low + 1; i <= high; i++) {
+            double key = keys[i];
+            int value = payload[i];
+            int j = i - 1;
+            while (j >= low && Double.compare(keys[j], key) > 0) {
+                comparisons++;
+                keys[j + 1] = keys[j];
+                payload[j + 1] = payload[j];
+                j--;
+            }
+            if (j >= low) {
+                comparisons++;
+            }
+            keys[j + 1] = key;
+            payload[j + 1] = value;
+        }
+        metrics.incrementComparisons(comparisons);
+    }
+
+    // Moves NaNs to arr[end..] and returns end, so the rest can be ordered with plain comparisons
+    public static int moveNaNsToEnd(double[] arr) {
+        int end = arr.length;
+        for (int i = end - 1; i >= 0; i--) {
+            if (arr[i] != arr[i]) {
+                swap(arr, i, --end);
+            }
+        }
+        return end;
+    }
+
+    // Rewrites -0.0 as 0.0 in arr[0..end) and returns how many there were
+    public static int clearNegativeZeros(double[] arr, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (arr[i] == 0 && Double.doubleToRawLongBits(arr[i]) < 0) {
+                arr[i] = 0;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Puts count negative zeros back in front of the zeros of the sorted range arr[0..end)
+    public static void restoreNegativeZeros(double[] arr, int end, int count) {
+        if (count == 0) return;
+        int lo = 0;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < lo + count; i++) {
+            arr[i] = -0.0;
+        }
+    }
+
+    // Moves NaNs to arr[end..] and returns end, so the rest can be ordered with plain comparisons
+    public static int moveNaNsToEnd(float[] arr) {
+        int end = arr.length;
+        for (int i = end - 1; i >= 0; i--) {
+            if (arr[i] != arr[i]) {
+                swap(arr, i, --end);
+            }
+        }
+        return end;
+    }
+
+    // Rewrites -0.0 as 0.0 in arr[0..end) and returns how many there were
+    public static int clearNegativeZeros(float[] arr, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (arr[i] == 0 && Float.floatToRawIntBits(arr[i]) < 0) {
+                arr[i] = 0;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Puts count negative zeros back in front of the zeros of the sorted range arr[0..end)
+    public static void restoreNegativeZeros(float[] arr, int end, int count) {
+        if (count == 0) return;
+        int lo = 0;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < lo + count; i++) {
+            arr[i] = -0.0f;
+        }
     }
 
     public static int partition(int[] arr, int low, int high, int pivotIndex) {
+        return partition(arr, low, high, pivotIndex, Metrics.backend());
+    }
+
+    public static int partition(int[] arr, int low, int high, int pivotIndex, MetricsBackend metrics) {
+        if (high - low >= SimdKernels.MIN_LENGTH && SimdKernels.isAvailable()) {
+            return SimdKernels.partition(arr, low, high, pivotIndex, metrics);
+        }
         int pivotValue = arr[pivotIndex];
         swap(arr, pivotIndex, high); // move pivot to end
 
+        // Every non-pivot element is compared exactly once
+        metrics.incrementComparisons(high - low);
+
         int storeIndex = low;
         for (int i = low; i < high; i++) {
-            Metrics.incrementComparisons();
             if (arr[i] < pivotValue) {
                 swap(arr, i, storeIndex);
                 storeIndex++;
@@ -60,6 +330,29 @@ public class ArrayUtils {
         return storeIndex;
     }
 
+    // Dutch national flag partition of arr[low..high] around pivot. Afterwards
+    // [low, lt) < pivot, [lt, gt] == pivot, (gt, high] > pivot; returns lt and gt packed as (lt << 32 | gt)
+    public static long partition3Way(int[] arr, int low, int high, int pivot, MetricsBackend metrics) {
+        int lt = low, i = low, gt = high;
+        long comparisons = 0;
+        while (i <= gt) {
+            int value = arr[i];
+            comparisons++;
+            if (value < pivot) {
+                swap(arr, lt++, i++);
+            } else {
+                comparisons++;
+                if (value > pivot) {
+                    swap(arr, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+        }
+        metrics.incrementComparisons(comparisons);
+        return ((long) lt << 32) | (gt & 0xFFFFFFFFL);
+    }
+
     public static boolean isSorted(int[] arr) {
         for (int i = 1; i < arr.length; i++) {
             if (arr[i] < arr[i - 1]) {
@@ -0,0 +1,163 @@
+package org.example.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Shared backend safe to update from many threads. Counters are LongAdder-striped and
+// recursion depth is tracked per thread; only a new maximum touches shared state. Forked
+// subtasks may run on any worker, so each fork tracks its own depth from the point where
+// it was forked instead of using the worker thread's counter.
+public final class ConcurrentMetrics implements MetricsBackend {
+    private final AtomicInteger maxRecursionDepth = new AtomicInteger();
+    private final ThreadLocal<int[]> currentRecursionDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder[] counters = new LongAdder[MetricsCounter.values().length];
+
+    public ConcurrentMetrics() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void incrementDepth() {
+        recordDepth(++currentRecursionDepth.get()[0]);
+    }
+
+    @Override
+    public void decrementDepth() {
+        currentRecursionDepth.get()[0]--;
+    }
+
+    @Override
+    public void incrementComparisons() {
+        comparisons.increment();
+    }
+
+    @Override
+    public void incrementComparisons(long count) {
+        comparisons.add(count);
+    }
+
+    @Override
+    public void incrementAllocations(long count) {
+        allocations.add(count);
+    }
+
+    @Override
+    public void incrementCounter(MetricsCounter counter, long count) {
+        counters[counter.ordinal()].add(count);
+    }
+
+    @Override
+    public int getMaxRecursionDepth() { return maxRecursionDepth.get(); }
+
+    @Override
+    public long getComparisons() { return comparisons.sum(); }
+
+    @Override
+    public long getAllocations() { return allocations.sum(); }
+
+    @Override
+    public long getCounter(MetricsCounter counter) { return counters[counter.ordinal()].sum(); }
+
+    // Clears the totals and the maximum depth. Live depth counters are left alone: every
+    // increment is paired with a decrement, so they are back at zero once all runs finish.
+    // Call this only when no algorithm is running on the backend. A run still in progress
+    // reports into the new totals.
+    @Override
+    public void reset() {
+        maxRecursionDepth.set(0);
+        comparisons.reset();
+        allocations.reset();
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+
+    @Override
+    public MetricsBackend fork() {
+        return new Fork(this, currentRecursionDepth.get()[0]);
+    }
+
+    @Override
+    public void join(MetricsBackend child) {
+        // Forked tasks already report into the shared counters
+    }
+
+    private void recordDepth(int depth) {
+        if (depth > maxRecursionDepth.get()) {
+            maxRecursionDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    // View handed to one forked subtask: counters go straight to the shared adders, while
+    // depth lives in a plain field that only the subtask's current thread touches
+    private static final class Fork implements MetricsBackend {
+        private final ConcurrentMetrics root;
+        private int currentRecursionDepth;
+
+        Fork(ConcurrentMetrics root, int baseDepth) {
+            this.root = root;
+            this.currentRecursionDepth = baseDepth;
+        }
+
+        @Override
+        public void incrementDepth() {
+            root.recordDepth(++currentRecursionDepth);
+        }
+
+        @Override
+        public void decrementDepth() {
+            currentRecursionDepth--;
+        }
+
+        @Override
+        public void incrementComparisons() {
+            root.incrementComparisons();
+        }
+
+        @Override
+        public void incrementComparisons(long count) {
+            root.incrementComparisons(count);
+        }
+
+        @Override
+        public void incrementAllocations(long count) {
+            root.incrementAllocations(count);
+        }
+
+        @Override
+        public void incrementCounter(MetricsCounter counter, long count) {
+            root.incrementCounter(counter, count);
+        }
+
+        @Override
+        public int getMaxRecursionDepth() { return root.getMaxRecursionDepth(); }
+
+        @Override
+        public long getComparisons() { return root.getComparisons(); }
+
+        @Override
+        public long getAllocations() { return root.getAllocations(); }
+
+        @Override
+        public long getCounter(MetricsCounter counter) { return root.getCounter(counter); }
+
+        @Override
+        public void reset() {
+            root.reset();
+        }
+
+        @Override
+        public MetricsBackend fork() {
+            return new Fork(root, currentRecursionDepth);
+        }
+
+        @Override
+        public void join(MetricsBackend child) {
+            // Forked tasks already report into the shared counters
+        }
+    }
+}
@@ -5,13 +5,34 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 public class Metrics {
-    private static int maxRecursionDepth = 0;
-    private static int currentRecursionDepth = 0;
-    private static long comparisons = 0;
-    private static long allocations = 0;
+
+    public enum Mode {
+        NO_OP,      // discard all updates
+        CONCURRENT  // shared LongAdder-striped counters, safe from any thread
+    }
+
+    // Production switch: run with -Dmetrics.enabled=false and backend() folds to the no-op
+    // backend at JIT time, so instrumented call sites inline to nothing
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("metrics.enabled"));
+
+    // Global backend used by the entry points that do not take an explicit MetricsBackend
+    private static final ConcurrentMetrics concurrent = new ConcurrentMetrics();
+    private static volatile MetricsBackend backend = concurrent;
     private static long startTime = 0;
     private static long endTime = 0;
 
+    public static MetricsBackend backend() {
+        return ENABLED ? backend : NoOpMetrics.INSTANCE;
+    }
+
+    public static void setMode(Mode mode) {
+        backend = (mode == Mode.NO_OP) ? NoOpMetrics.INSTANCE : concurrent;
+    }
+
+    public static Mode getMode() {
+        return (backend() == NoOpMetrics.INSTANCE) ? Mode.NO_OP : Mode.CONCURRENT;
+    }
+
     public static void startTiming() {
         startTime = System.nanoTime();
     }
@@ -25,45 +46,49 @@ public class Metrics {
     }
 
     public static void incrementDepth() {
-        currentRecursionDepth++;
-        if (currentRecursionDepth > maxRecursionDepth) {
-            maxRecursionDepth = currentRecursionDepth;
-        }
+        backend().incrementDepth();
     }
 
     public static void decrementDepth() {
-        currentRecursionDepth--;
+        backend().decrementDepth();
     }
 
     public static void incrementComparisons() {
-        comparisons++;
+        backend().incrementComparisons();
     }
 
     public static void incrementComparisons(long count) {
-        comparisons += count;
+        backend().incrementComparisons(count);
     }
 
     public static void incrementAllocations() {
-        allocations++;
+        backend().incrementAllocations(1);
     }
 
     public static void incrementAllocations(long count) {
-        allocations += count;
+        backend().incrementAllocations(count);
+    }
+
+    public static void incrementCounter(MetricsCounter counter, long count) {
+        backend().incrementCounter(counter, count);
     }
 
     public static void reset() {
-        maxRecursionDepth = 0;
-        currentRecursionDepth = 0;
-        comparisons = 0;
-        allocations = 0;
+        backend().reset();
         startTime = 0;
         endTime = 0;
     }
 
     public static void printMetrics() {
-        System.out.println("Max Recursion Depth: " + maxRecursionDepth);
-        System.out.println("Comparisons: " + comparisons);
-        System.out.println("Allocations: " + allocations);
+        System.out.println("Max Recursion Depth: " + getMaxRecursionDepth());
+        System.out.println("Comparisons: " + getComparisons());
+        System.out.println("Allocations: " + getAllocations());
+        for (MetricsCounter counter : MetricsCounter.values()) {
+            long value = getCounter(counter);
+            if (value != 0) {
+                System.out.println(counter + ": " + value);
+            }
+        }
         System.out.println("Time (ns): " + getElapsedTimeNanos());
         System.out.println("Time (ms): " + getElapsedTimeNanos() / 1_000_000.0);
     }
@@ -77,12 +102,13 @@ public class Metrics {
     public static void writeCSVRow(String filename, String algorithm, int n) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename, true))) {
             writer.printf("%s,%d,%d,%d,%d,%d%n",
-                algorithm, n, getElapsedTimeNanos(), maxRecursionDepth, comparisons, allocations);
+                algorithm, n, getElapsedTimeNanos(), getMaxRecursionDepth(), getComparisons(), getAllocations());
         }
     }
 
     // Getters for metrics
-    public static int getMaxRecursionDepth() { return maxRecursionDepth; }
-    public static long getComparisons() { return comparisons; }
-    public static long getAllocations() { return allocations; }
+    public static int getMaxRecursionDepth() { return backend().getMaxRecursionDepth(); }
+    public static long getComparisons() { return backend().getComparisons(); }
+    public static long getAllocations() { return backend().getAllocations(); }
+    public static long getCounter(MetricsCounter counter) { return backend().getCounter(counter); }
 }
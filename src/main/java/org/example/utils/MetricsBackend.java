@@ -0,0 +1,35 @@
+package org.example.utils;
+
+// Sink for algorithm instrumentation. Algorithms receive a backend as a parameter so that
+// callers can choose between the global Metrics counters, a per-invocation MetricsContext,
+// or NoOpMetrics at no cost.
+public interface MetricsBackend {
+
+    void incrementDepth();
+
+    void decrementDepth();
+
+    void incrementComparisons();
+
+    void incrementComparisons(long count);
+
+    void incrementAllocations(long count);
+
+    void incrementCounter(MetricsCounter counter, long count);
+
+    int getMaxRecursionDepth();
+
+    long getComparisons();
+
+    long getAllocations();
+
+    long getCounter(MetricsCounter counter);
+
+    void reset();
+
+    // Backend to hand to a subtask that may run on another thread
+    MetricsBackend fork();
+
+    // Folds a forked backend back in once its subtask has completed
+    void join(MetricsBackend child);
+}
@@ -0,0 +1,99 @@
+package org.example.utils;
+
+import java.util.Arrays;
+
+// Per-invocation counters held in plain fields. A context is owned by one thread at a
+// time; parallel algorithms fork() a child per subtask and join it after the subtask
+// completes, so the totals stay exact without any sharing.
+public final class MetricsContext implements MetricsBackend {
+    private int maxRecursionDepth;
+    private int currentRecursionDepth;
+    private long comparisons;
+    private long allocations;
+    private final long[] counters = new long[MetricsCounter.values().length];
+
+    public MetricsContext() {
+    }
+
+    private MetricsContext(int baseDepth) {
+        this.currentRecursionDepth = baseDepth;
+        this.maxRecursionDepth = baseDepth;
+    }
+
+    @Override
+    public void incrementDepth() {
+        if (++currentRecursionDepth > maxRecursionDepth) {
+            maxRecursionDepth = currentRecursionDepth;
+        }
+    }
+
+    @Override
+    public void decrementDepth() {
+        currentRecursionDepth--;
+    }
+
+    @Override
+    public void incrementComparisons() {
+        comparisons++;
+    }
+
+    @Override
+    public void incrementComparisons(long count) {
+        comparisons += count;
+    }
+
+    @Override
+    public void incrementAllocations(long count) {
+        allocations += count;
+    }
+
+    @Override
+    public void incrementCounter(MetricsCounter counter, long count) {
+        counters[counter.ordinal()] += count;
+    }
+
+    @Override
+    public int getMaxRecursionDepth() { return maxRecursionDepth; }
+
+    @Override
+    public long getComparisons() { return comparisons; }
+
+    @Override
+    public long getAllocations() { return allocations; }
+
+    @Override
+    public long getCounter(MetricsCounter counter) { return counters[counter.ordinal()]; }
+
+    @Override
+    public void reset() {
+        maxRecursionDepth = 0;
+        currentRecursionDepth = 0;
+        comparisons = 0;
+        allocations = 0;
+        Arrays.fill(counters, 0);
+    }
+
+    @Override
+    public MetricsBackend fork() {
+        // Child starts at the parent's depth so joined max depth stays logical
+        return new MetricsContext(currentRecursionDepth);
+    }
+
+    @Override
+    public void join(MetricsBackend child) {
+        comparisons += child.getComparisons();
+        allocations += child.getAllocations();
+        for (MetricsCounter counter : MetricsCounter.values()) {
+            counters[counter.ordinal()] += child.getCounter(counter);
+        }
+        if (child.getMaxRecursionDepth() > maxRecursionDepth) {
+            maxRecursionDepth = child.getMaxRecursionDepth();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MetricsContext[maxDepth=%d, comparisons=%d, allocations=%d]",
+            maxRecursionDepth, comparisons, allocations);
+    }
+}
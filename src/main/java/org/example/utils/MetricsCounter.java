@@ -0,0 +1,13 @@
+package org.example.utils;
+
+// Auxiliary counters reported next to the core depth/comparison/allocation figures
+public enum MetricsCounter {
+    POOL_HITS,         // scratch buffers served from ScratchPool
+    POOL_MISSES,       // scratch buffers ScratchPool had to allocate
+    IO_BYTES_READ,     // bytes read from files by external algorithms
+    IO_BYTES_WRITTEN,  // bytes written to files by external algorithms
+    SPILLED_RUNS,      // sorted runs written to temporary files
+    MERGE_PASSES,      // k-way merge passes over spilled runs
+    RADIX_PASSES,      // digit passes that moved data in radix sorts (skipped digits not counted)
+    BYTES_MOVED        // bytes of keys written by radix scatter and permutation passes
+}
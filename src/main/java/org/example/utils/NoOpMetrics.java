@@ -0,0 +1,24 @@
+package org.example.utils;
+
+// Backend that discards every update. All methods are empty, so once the JIT sees this
+// type at a call site the instrumentation compiles away.
+public final class NoOpMetrics implements MetricsBackend {
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private NoOpMetrics() {
+    }
+
+    @Override public void incrementDepth() { }
+    @Override public void decrementDepth() { }
+    @Override public void incrementComparisons() { }
+    @Override public void incrementComparisons(long count) { }
+    @Override public void incrementAllocations(long count) { }
+    @Override public void incrementCounter(MetricsCounter counter, long count) { }
+    @Override public int getMaxRecursionDepth() { return 0; }
+    @Override public long getComparisons() { return 0; }
+    @Override public long getAllocations() { return 0; }
+    @Override public long getCounter(MetricsCounter counter) { return 0; }
+    @Override public void reset() { }
+    @Override public MetricsBackend fork() { return this; }
+    @Override public void join(MetricsBackend child) { }
+}
@@ -0,0 +1,74 @@
+package org.example.utils;
+
+// Thread-local, size-classed pool of int[] scratch buffers. Each thread keeps at most two
+// buffers per power-of-two size class (an index array and its aux), so a thread that
+// repeatedly sorts similar-sized arrays reaches a steady state with no allocation at all.
+// Buffers above MAX_POOLED_LENGTH are handed out but never retained.
+public final class ScratchPool {
+    public static final int MAX_POOLED_LENGTH = 1 << 24;
+
+    private static final int SIZE_CLASSES = 25; // 2^0 .. 2^24
+    private static final int SLOTS_PER_CLASS = 2;
+    private static final ThreadLocal<ScratchPool> LOCAL = ThreadLocal.withInitial(ScratchPool::new);
+
+    private final int[][] slots = new int[SIZE_CLASSES * SLOTS_PER_CLASS][];
+
+    private ScratchPool() {
+    }
+
+    public static ScratchPool local() {
+        return LOCAL.get();
+    }
+
+    // Returns a buffer of at least minLength; must be given back with release() when done
+    public int[] acquire(int minLength, MetricsBackend metrics) {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("Length must be non-negative");
+        }
+        if (minLength > MAX_POOLED_LENGTH) {
+            metrics.incrementCounter(MetricsCounter.POOL_MISSES, 1);
+            metrics.incrementAllocations(minLength);
+            return new int[minLength];
+        }
+
+        int sizeClass = sizeClass(minLength);
+        for (int slot = sizeClass * SLOTS_PER_CLASS; slot < (sizeClass + 1) * SLOTS_PER_CLASS; slot++) {
+            int[] buffer = slots[slot];
+            if (buffer != null) {
+                slots[slot] = null;
+                metrics.incrementCounter(MetricsCounter.POOL_HITS, 1);
+                return buffer;
+            }
+        }
+
+        metrics.incrementCounter(MetricsCounter.POOL_MISSES, 1);
+        metrics.incrementAllocations(1L << sizeClass);
+        return new int[1 << sizeClass];
+    }
+
+    public void release(int[] buffer) {
+        int length = buffer.length;
+        // Only exact size-class buffers up to the cap are kept; anything else is left to the GC
+        if (length == 0 || length > MAX_POOLED_LENGTH || Integer.bitCount(length) != 1) return;
+
+        int sizeClass = Integer.numberOfTrailingZeros(length);
+        for (int slot = sizeClass * SLOTS_PER_CLASS; slot < (sizeClass + 1) * SLOTS_PER_CLASS; slot++) {
+            if (slots[slot] == buffer) return;
+            if (slots[slot] == null) {
+                slots[slot] = buffer;
+                return;
+            }
+        }
+    }
+
+    // Drops every buffer held for the calling thread
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+    }
+
+    private static int sizeClass(int length) {
+        return length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.utils;
+
+// Optional SIMD versions of the partition and merge inner loops. The implementation lives in
+// src/main/java17 and is compiled only by the "vector" Maven profile, since jdk.incubator.vector
+// needs JDK 16+. It is loaded reflectively, so this class and its callers stay Java 11. Kernels are
+// used only when the class is on the classpath, the JVM was launched with
+// --add-modules jdk.incubator.vector, and the CPU has at least 128-bit vectors. Otherwise
+// isAvailable() is false and callers keep their scalar loops. Run with -Dsimd.enabled=false to
+// compare against the scalar code on the same build.
+public final class SimdKernels {
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("simd.enabled"));
+
+    // Shortest partition range, and shortest merge run, handed to a kernel
+    public static final int MIN_LENGTH = 64;
+
+    // Kernels store whole vectors, so scratch needs room for one past the data
+    private static final int SCRATCH_SLACK = 16;
+
+    interface Kernel {
+        // Moves the values of arr[low, high) below pivot to the front, in order, and returns where
+        // they end; the rest follow in order. scratch holds at least high - low + SCRATCH_SLACK ints.
+        int partition(int[] arr, int low, int high, int pivot, int[] scratch);
+
+        // Merges sorted src[lo1..hi1] and src[lo2..hi2], each at least MIN_LENGTH long, into dst
+        void merge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dstLow);
+    }
+
+    private static final Kernel KERNEL = ENABLED ? load() : null;
+
+    private SimdKernels() {
+    }
+
+    public static boolean isAvailable() {
+        return KERNEL != null;
+    }
+
+    // Same contract as ArrayUtils.partition; only call when isAvailable()
+    public static int partition(int[] arr, int low, int high, int pivotIndex, MetricsBackend metrics) {
+        int pivotValue = arr[pivotIndex];
+        ArrayUtils.swap(arr, pivotIndex, high); // move pivot to end
+        metrics.incrementComparisons(high - low);
+
+        ScratchPool pool = ScratchPool.local();
+        int[] scratch = pool.acquire(high - low + SCRATCH_SLACK, metrics);
+        int storeIndex;
+        try {
+            storeIndex = KERNEL.partition(arr, low, high, pivotValue, scratch);
+        } finally {
+            pool.release(scratch);
+        }
+        ArrayUtils.swap(arr, storeIndex, high); // move pivot to final position
+        return storeIndex;
+    }
+
+    // Merges sorted src[lo1..hi1] and src[lo2..hi2] into dst; only call when isAvailable() and
+    // both runs are at least MIN_LENGTH long. Counts one comparison per element.
+    public static void merge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dstLow,
+                             MetricsBackend metrics) {
+        KERNEL.merge(src, lo1, hi1, lo2, hi2, dst, dstLow);
+        metrics.incrementComparisons((hi1 - lo1 + 1) + (hi2 - lo2 + 1));
+    }
+
+    private static Kernel load() {
+        try {
+            if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                return null;
+            }
+            Class<?> type = Class.forName("org.example.utils.VectorKernels");
+            return (Kernel) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // Not built with the vector profile, or no usable vector hardware
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.utils;
+
+import java.util.Arrays;
+
+// Branchless base cases. A sorting network is a fixed sequence of compare-exchanges, each
+// done with Math.min/Math.max, which the JIT turns into conditional moves, so the cost does
+// not depend on the data and random input causes no branch mispredictions. Sizes 2..8 use
+// size-optimal networks; 9..16 use Batcher's odd-even merge network for 16 inputs, keeping
+// only the comparators among the first n wires (the missing wires act as +infinity).
+public final class SortingNetworks {
+    public static final int MAX_SIZE = 16;
+
+    // NETWORKS[n] holds the comparator wire pairs for n inputs, flattened
+    private static final byte[][] NETWORKS = new byte[MAX_SIZE + 1][];
+
+    static {
+        NETWORKS[2] = new byte[]{0, 1};
+        NETWORKS[3] = new byte[]{0, 2, 0, 1, 1, 2};
+        NETWORKS[4] = new byte[]{0, 2, 1, 3, 0, 1, 2, 3, 1, 2};
+        NETWORKS[5] = new byte[]{0, 3, 1, 4, 0, 2, 1, 3, 0, 1, 2, 4, 1, 2, 3, 4, 2, 3};
+        NETWORKS[6] = new byte[]{0, 5, 1, 3, 2, 4, 1, 2, 3, 4, 0, 3, 2, 5, 0, 1, 2, 3, 4, 5, 1, 2, 3, 4};
+        NETWORKS[7] = new byte[]{0, 6, 2, 3, 4, 5, 0, 2, 1, 4, 3, 6, 0, 1, 2, 5, 3, 4, 1, 2, 4, 6, 2, 3, 4, 5,
+                                 1, 2, 3, 4, 5, 6};
+        NETWORKS[8] = new byte[]{0, 2, 1, 3, 4, 6, 5, 7, 0, 4, 1, 5, 2, 6, 3, 7, 0, 1, 2, 3, 4, 5, 6, 7,
+                                 2, 4, 3, 5, 1, 4, 3, 6, 1, 2, 3, 4, 5, 6};
+        for (int n = 9; n <= MAX_SIZE; n++) {
+            NETWORKS[n] = batcher(n);
+        }
+    }
+
+    private SortingNetworks() {
+    }
+
+    // Reads a per-algorithm base-case cutoff from a system property, clamped to [2, MAX_SIZE]
+    public static int cutoff(String property, int defaultValue) {
+        return Math.max(2, Math.min(MAX_SIZE, Integer.getInteger(property, defaultValue)));
+    }
+
+    public static void sort(int[] arr, int low, int high) {
+        sort(arr, low, high, Metrics.backend());
+    }
+
+    // Sorts arr[low..high], which may hold at most MAX_SIZE elements
+    public static void sort(int[] arr, int low, int high, MetricsBackend metrics) {
+        int n = high - low + 1;
+        if (n <= 1) return;
+        if (n > MAX_SIZE) {
+            throw new IllegalArgumentException("Sorting networks handle at most " + MAX_SIZE + " elements");
+        }
+
+        byte[] network = NETWORKS[n];
+        for (int c = 0; c < network.length; c += 2) {
+            int i = low + network[c];
+            int j = low + network[c + 1];
+            int a = arr[i];
+            int b = arr[j];
+            arr[i] = Math.min(a, b);
+            arr[j] = Math.max(a, b);
+        }
+        metrics.incrementComparisons(network.length / 2);
+    }
+
+    // Rearranges arr[i..i+4] so that arr[i + 2] is their median, with 7 compare-exchanges.
+    // After ordering two pairs and crossing them, arr[i] is below three others and arr[i + 4]
+    // above three others, so neither can be the median; the median of the middle three is.
+    public static void medianOf5(int[] arr, int i, MetricsBackend metrics) {
+        compareExchange(arr, i, i + 1);
+        compareExchange(arr, i + 3, i + 4);
+        compareExchange(arr, i, i + 3);
+        compareExchange(arr, i + 1, i + 4);
+        compareExchange(arr, i + 1, i + 2);
+        compareExchange(arr, i + 2, i + 3);
+        compareExchange(arr, i + 1, i + 2);
+        metrics.incrementComparisons(7);
+    }
+
+    // Number of compare-exchanges sort() performs for n elements
+    public static int comparators(int n) {
+        return n <= 1 ? 0 : NETWORKS[n].length / 2;
+    }
+
+    private static void compareExchange(int[] arr, int i, int j) {
+        int a = arr[i];
+        int b = arr[j];
+        arr[i] = Math.min(a, b);
+        arr[j] = Math.max(a, b);
+    }
+
+    // Batcher's odd-even merge sort network over MAX_SIZE wires, restricted to the first n
+    private static byte[] batcher(int n) {
+        byte[] pairs = new byte[2 * MAX_SIZE * MAX_SIZE];
+        int count = 0;
+        for (int p = 1; p < MAX_SIZE; p <<= 1) {
+            for (int k = p; k >= 1; k >>= 1) {
+                for (int j = k % p; j + k < MAX_SIZE; j += 2 * k) {
+                    for (int i = 0; i < k && i + j + k < MAX_SIZE; i++) {
+                        int a = i + j;
+                        int b = i + j + k;
+                        if (a / (2 * p) == b / (2 * p) && b < n) {
+                            pairs[count++] = (byte) a;
+                            pairs[count++] = (byte) b;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.utils;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// jdk.incubator.vector implementation of SimdKernels.Kernel. Compiled only by the "vector"
+// profile and instantiated reflectively by SimdKernels, so nothing in the Java 11 tree links
+// against it. The constructor throws on hardware without usable vectors, which SimdKernels
+// treats as "not available".
+final class VectorKernels implements SimdKernels.Kernel {
+    // At most 8 lanes: the compress tables hold 2^lanes shuffles
+    private static final VectorSpecies<Integer> SPECIES =
+        IntVector.SPECIES_PREFERRED.length() >= 8 ? IntVector.SPECIES_256 : IntVector.SPECIES_128;
+    private static final int LANES = SPECIES.length();
+    private static final int ALL_LANES = (1 << LANES) - 1;
+
+    // JDK 17 has no compress(): COMPRESS[m] moves the lanes set in m to the front, in order
+    private static final VectorShuffle<Integer>[] COMPRESS = compressTable();
+
+    // Bitonic network: REVERSE flips a vector, and at each distance d, lane i is paired with
+    // lane i ^ d through PARTNER, the lanes of UPPER taking the max of the pair
+    private static final VectorShuffle<Integer> REVERSE =
+        VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+    private static final VectorShuffle<Integer>[] PARTNER = partnerTable();
+    private static final VectorMask<Integer>[] UPPER = upperTable();
+
+    VectorKernels() {
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < 128) {
+            throw new UnsupportedOperationException("No 128-bit vector support");
+        }
+    }
+
+    // Values below the pivot are compressed in place: the write cursor never passes the read
+    // cursor, so a full-width store only overwrites lanes that were already loaded. The rest are
+    // compressed into scratch and copied back behind them.
+    @Override
+    public int partition(int[] arr, int low, int high, int pivot, int[] scratch) {
+        IntVector pivots = IntVector.broadcast(SPECIES, pivot);
+        int store = low;
+        int right = 0;
+        int i = low;
+
+        for (int bound = low + SPECIES.loopBound(high - low); i < bound; i += LANES) {
+            IntVector v = IntVector.fromArray(SPECIES, arr, i);
+            int below = (int) v.compare(VectorOperators.LT, pivots).toLong();
+            int count = Integer.bitCount(below);
+            v.rearrange(COMPRESS[below]).intoArray(arr, store);
+            v.rearrange(COMPRESS[~below & ALL_LANES]).intoArray(scratch, right);
+            store += count;
+            right += LANES - count;
+        }
+        for (; i < high; i++) {
+            int value = arr[i];
+            if (value < pivot) {
+                arr[store++] = value;
+            } else {
+                scratch[right++] = value;
+            }
+        }
+
+        System.arraycopy(scratch, 0, arr, store, right);
+        return store;
+    }
+
+    // Streaming bitonic merge: a carried vector and the next block from whichever run has the
+    // smaller head go through the network; the low half is final and stored, the high half is
+    // carried. Once the run to read from has less than a block left, the carry and both
+    // remainders are finished with a scalar three-way merge.
+    @Override
+    public void merge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dstLow) {
+        IntVector carry = IntVector.fromArray(SPECIES, src, lo1);
+        IntVector next = IntVector.fromArray(SPECIES, src, lo2);
+        int i = lo1 + LANES;
+        int j = lo2 + LANES;
+        int k = dstLow;
+
+        while (true) {
+            next = next.rearrange(REVERSE);
+            IntVector low = sortBitonic(carry.min(next));
+            carry = sortBitonic(carry.max(next));
+            low.intoArray(dst, k);
+            k += LANES;
+
+            boolean fromLeft = j > hi2 || (i <= hi1 && src[i] <= src[j]);
+            if (fromLeft ? i + LANES - 1 > hi1 : j + LANES - 1 > hi2) break;
+            if (fromLeft) {
+                next = IntVector.fromArray(SPECIES, src, i);
+                i += LANES;
+            } else {
+                next = IntVector.fromArray(SPECIES, src, j);
+                j += LANES;
+            }
+        }
+
+        int[] rest = carry.toArray();
+        int r = 0;
+        while (r < LANES || i <= hi1 || j <= hi2) {
+            int best = Integer.MAX_VALUE;
+            int from = -1;
+            if (r < LANES) {
+                best = rest[r];
+                from = 0;
+            }
+            if (i <= hi1 && (from < 0 || src[i] < best)) {
+                best = src[i];
+                from = 1;
+            }
+            if (j <= hi2 && (from < 0 || src[j] < best)) {
+                best = src[j];
+                from = 2;
+            }
+            dst[k++] = best;
+            if (from == 0) {
+                r++;
+            } else if (from == 1) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    private static IntVector sortBitonic(IntVector v) {
+        for (int s = 0; s < PARTNER.length; s++) {
+            IntVector partner = v.rearrange(PARTNER[s]);
+            v = v.min(partner).blend(v.max(partner), UPPER[s]);
+        }
+        return v;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] compressTable() {
+        VectorShuffle<Integer>[] table = new VectorShuffle[1 << LANES];
+        int[] order = new int[LANES];
+        for (int mask = 0; mask < table.length; mask++) {
+            int n = 0;
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) != 0) order[n++] = lane;
+            }
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) == 0) order[n++] = lane;
+            }
+            table[mask] = VectorShuffle.fromArray(SPECIES, order, 0);
+        }
+        return table;
+    }
+
+    // Distances LANES / 2, LANES / 4, ..., 1
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] partnerTable() {
+        VectorShuffle<Integer>[] table = new VectorShuffle[Integer.numberOfTrailingZeros(LANES)];
+        for (int s = 0; s < table.length; s++) {
+            int distance = LANES >> (s + 1);
+            table[s] = VectorShuffle.fromOp(SPECIES, i -> i ^ distance);
+        }
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Integer>[] upperTable() {
+        VectorMask<Integer>[] table = new VectorMask[Integer.numberOfTrailingZeros(LANES)];
+        boolean[] bits = new boolean[LANES];
+        for (int s = 0; s < table.length; s++) {
+            int distance = LANES >> (s + 1);
+            for (int lane = 0; lane < LANES; lane++) {
+                bits[lane] = (lane & distance) != 0;
+            }
+            table[s] = VectorMask.fromArray(SPECIES, bits, 0);
+        }
+        return table;
+    }
+}
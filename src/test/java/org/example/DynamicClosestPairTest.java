@@ -0,0 +1,130 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.ClosestPair;
+import org.example.algorithms.DynamicClosestPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+class DynamicClosestPairTest {
+
+    @Test
+    @DisplayName("Dynamic closest pair tracks brute force under inserts and removals")
+    void testInsertAndRemove() {
+        Random random = new Random(7);
+        DynamicClosestPair dynamic = new DynamicClosestPair();
+        List<ClosestPair.Point> live = new ArrayList<>();
+
+        for (int step = 0; step < 3000; step++) {
+            if (live.size() > 2 && random.nextInt(3) == 0) {
+                // Remove the current closest pair's point half of the time, a random one otherwise
+                ClosestPair.Point victim = random.nextBoolean()
+                    ? dynamic.closestPair().p1
+                    : live.get(random.nextInt(live.size()));
+                assertTrue(dynamic.remove(victim));
+                removeFirstWithCoordinates(live, victim);
+            } else {
+                // Integer grid coordinates produce duplicates now and then
+                ClosestPair.Point point =
+                    new ClosestPair.Point(random.nextInt(2000) * 0.5, random.nextInt(2000) * 0.5);
+                dynamic.insert(point);
+                live.add(point);
+            }
+
+            assertEquals(live.size(), dynamic.size());
+            if (live.size() < 2) {
+                assertNull(dynamic.closestPair());
+            } else if (step % 7 == 0 || live.size() < 50) {
+                assertEquals(bruteForce(live), dynamic.closestPair().distance, 1e-9,
+                    "Mismatch at step " + step);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Refilling after removing down to zero or one point seeds from live points only")
+    void testRefillAfterDrain() {
+        DynamicClosestPair dynamic = new DynamicClosestPair();
+        ClosestPair.Point a = new ClosestPair.Point(0, 0);
+        dynamic.insert(a);
+        assertTrue(dynamic.remove(a));
+        assertEquals(0, dynamic.size());
+
+        ClosestPair.Point b = new ClosestPair.Point(100, 0);
+        ClosestPair.Point c = new ClosestPair.Point(0.1, 0);
+        dynamic.insert(b);
+        dynamic.insert(c);
+        assertEquals(99.9, dynamic.closestPair().distance, 1e-9);
+        dynamic.insert(new ClosestPair.Point(50, 0));
+        assertEquals(49.9, dynamic.closestPair().distance, 1e-9);
+
+        // Drain to zero or one point and refill, over and over
+        Random random = new Random(11);
+        List<ClosestPair.Point> live = new ArrayList<>(List.of(b, c, new ClosestPair.Point(50, 0)));
+        for (int round = 0; round < 200; round++) {
+            int keep = round % 2;
+            while (live.size() > keep) {
+                ClosestPair.Point victim = live.remove(random.nextInt(live.size()));
+                assertTrue(dynamic.remove(victim));
+            }
+            int target = 2 + random.nextInt(6);
+            while (live.size() < target) {
+                ClosestPair.Point point =
+                    new ClosestPair.Point(random.nextDouble() * 100, random.nextDouble() * 100);
+                dynamic.insert(point);
+                live.add(point);
+                assertEquals(live.size(), dynamic.size());
+                if (live.size() >= 2) {
+                    assertEquals(bruteForce(live), dynamic.closestPair().distance, 1e-9, "Round " + round);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Batch inserts match brute force and removal of unknown points is rejected")
+    void testBatchInsert() {
+        DynamicClosestPair dynamic = new DynamicClosestPair();
+        assertNull(dynamic.closestPair());
+        assertFalse(dynamic.remove(new ClosestPair.Point(1, 1)));
+
+        List<ClosestPair.Point> live = new ArrayList<>();
+        for (int batch = 0; batch < 6; batch++) {
+            ClosestPair.Point[] points = ClosestPair.generateRandomPoints(batch == 3 ? 5 : 500 << batch, 1e6);
+            dynamic.insertAll(points);
+            live.addAll(List.of(points));
+
+            assertEquals(live.size(), dynamic.size());
+            assertEquals(bruteForce(live), dynamic.closestPair().distance, 1e-9);
+        }
+
+        assertFalse(dynamic.remove(new ClosestPair.Point(-1, -1)));
+        assertThrows(IllegalArgumentException.class, () -> dynamic.insert(null));
+    }
+
+    private static void removeFirstWithCoordinates(List<ClosestPair.Point> points, ClosestPair.Point target) {
+        for (int i = 0; i < points.size(); i++) {
+            if (points.get(i).x == target.x && points.get(i).y == target.y) {
+                points.remove(i);
+                return;
+            }
+        }
+        fail("Point not found: " + target);
+    }
+
+    private static double bruteForce(List<ClosestPair.Point> points) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            for (int j = i + 1; j < points.size(); j++) {
+                best = Math.min(best, points.get(i).distanceTo(points.get(j)));
+            }
+        }
+        return best;
+    }
+}
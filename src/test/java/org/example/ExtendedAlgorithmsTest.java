@@ -7,9 +7,23 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.example.algorithms.*;
 import org.example.utils.ArrayUtils;
+import org.example.utils.ConcurrentMetrics;
 import org.example.utils.Metrics;
+import org.example.utils.MetricsBackend;
+import org.example.utils.MetricsContext;
+import org.example.utils.MetricsCounter;
+import org.example.utils.NoOpMetrics;
+import org.example.utils.ScratchPool;
+import org.example.utils.SimdKernels;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
 
 
 class ExtendedAlgorithmsTest {
@@ -126,6 +140,654 @@ class ExtendedAlgorithmsTest {
         assertEquals(42, result);
     }
 
+    @Test
+    @DisplayName("Parallel MergeSort matches Arrays.sort and tracks metrics")
+    void testParallelMergeSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int size : new int[]{0, 1, 100, 10_000, 200_000}) {
+                int[] arr = ArrayUtils.generateRandomArray(size, size * 10 + 1);
+                int[] expected = ArrayUtils.copyArray(arr);
+                Arrays.sort(expected);
+
+                Metrics.reset();
+                MergeSort.parallelSort(arr, pool, 1024);
+
+                assertArrayEquals(expected, arr, "Parallel MergeSort failed for size " + size);
+                if (size > 1) {
+                    assertEquals(size, Metrics.getAllocations(), "Aux buffer should be allocated once");
+                    assertTrue(Metrics.getComparisons() > 0, "Should track comparisons across workers");
+                }
+            }
+
+            int[] duplicates = ArrayUtils.generateRandomArray(100_000, 4);
+            int[] expected = ArrayUtils.copyArray(duplicates);
+            Arrays.sort(expected);
+            MergeSort.parallelSort(duplicates);
+            assertArrayEquals(expected, duplicates, "Parallel MergeSort failed on duplicates");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Per-invocation MetricsContext stays exact under concurrent callers")
+    void testMetricsContextConcurrentCallers() throws Exception {
+        int[] input = ArrayUtils.generateRandomArray(20_000, 100_000);
+
+        MetricsContext reference = new MetricsContext();
+        MergeSort.sort(ArrayUtils.copyArray(input), reference);
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<MetricsContext>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    MetricsContext context = new MetricsContext();
+                    MergeSort.sort(ArrayUtils.copyArray(input), context);
+                    return context;
+                }));
+            }
+            for (Future<MetricsContext> result : results) {
+                MetricsContext context = result.get();
+                assertEquals(reference.getComparisons(), context.getComparisons());
+                assertEquals(reference.getAllocations(), context.getAllocations());
+                assertEquals(reference.getMaxRecursionDepth(), context.getMaxRecursionDepth());
+            }
+
+            // The shared concurrent backend must not lose updates either
+            Metrics.reset();
+            List<Future<?>> runs = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                runs.add(executor.submit(() -> MergeSort.sort(ArrayUtils.copyArray(input))));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+            assertEquals(threads * reference.getComparisons(), Metrics.getComparisons());
+            assertEquals(threads * reference.getAllocations(), Metrics.getAllocations());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel MergeSort reports identical totals through forked contexts")
+    void testParallelMergeSortMetricsContext() {
+        int[] input = ArrayUtils.generateRandomArray(100_000, 1_000_000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MetricsContext context = new MetricsContext();
+            int[] arr = ArrayUtils.copyArray(input);
+            MergeSort.parallelSort(arr, pool, 1024, context);
+            assertTrue(ArrayUtils.isSorted(arr));
+
+            Metrics.reset();
+            MergeSort.parallelSort(ArrayUtils.copyArray(input), pool, 1024);
+
+            assertEquals(Metrics.getComparisons(), context.getComparisons());
+            assertEquals(Metrics.getAllocations(), context.getAllocations());
+
+            // Task levels stand in for the sequential recursion levels they replace
+            MetricsContext sequential = new MetricsContext();
+            MergeSort.sort(ArrayUtils.copyArray(input), sequential);
+            assertEquals(sequential.getMaxRecursionDepth(), context.getMaxRecursionDepth());
+            ConcurrentMetrics shared = new ConcurrentMetrics();
+            MergeSort.parallelSort(ArrayUtils.copyArray(input), pool, 1024, shared);
+            shared.reset();
+            assertEquals(0, shared.getMaxRecursionDepth());
+            assertEquals(0, shared.getComparisons());
+            MergeSort.sort(ArrayUtils.copyArray(input), shared);
+            assertEquals(sequential.getMaxRecursionDepth(), shared.getMaxRecursionDepth());
+            assertEquals(sequential.getComparisons(), shared.getComparisons());
+
+            // A fork carries its parent's depth to whichever worker runs it
+            shared.reset();
+            shared.incrementDepth();
+            shared.incrementDepth();
+            MetricsBackend child = shared.fork();
+            pool.submit(() -> {
+                child.incrementDepth();
+                child.decrementDepth();
+            }).join();
+            shared.decrementDepth();
+            shared.decrementDepth();
+            assertEquals(3, shared.getMaxRecursionDepth());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("No-op metrics mode records nothing")
+    void testNoOpMetricsMode() {
+        Metrics.reset();
+        Metrics.setMode(Metrics.Mode.NO_OP);
+        try {
+            int[] arr = ArrayUtils.generateRandomArray(1000, 10_000);
+            QuickSort.sort(arr);
+            DeterministicSelect.select(ArrayUtils.generateRandomArray(1000, 10_000), 500);
+
+            assertTrue(ArrayUtils.isSorted(arr));
+            assertEquals(0, Metrics.getComparisons());
+            assertEquals(0, Metrics.getAllocations());
+            assertEquals(0, Metrics.getMaxRecursionDepth());
+        } finally {
+            Metrics.setMode(Metrics.Mode.CONCURRENT);
+        }
+    }
+
+    @Test
+    @DisplayName("Uninstrumented strategy gives the same results without touching global metrics")
+    void testUninstrumentedStrategy() {
+        int[] input = ArrayUtils.generateRandomArray(5000, 50_000);
+        int[] expected = ArrayUtils.copyArray(input);
+        Arrays.sort(expected);
+
+        Metrics.reset();
+        int[] merged = ArrayUtils.copyArray(input);
+        MergeSort.sort(merged, NoOpMetrics.INSTANCE);
+        int[] quick = ArrayUtils.copyArray(input);
+        QuickSort.sort(quick, NoOpMetrics.INSTANCE);
+        int selected = DeterministicSelect.select(ArrayUtils.copyArray(input), 2500, NoOpMetrics.INSTANCE);
+        ClosestPair.Point[] points = ClosestPair.generateRandomPoints(500, 1000.0);
+        ClosestPair.PointPair pair = ClosestPair.findClosestPair(points, NoOpMetrics.INSTANCE);
+
+        assertArrayEquals(expected, merged);
+        assertArrayEquals(expected, quick);
+        assertEquals(expected[2500], selected);
+        assertEquals(bruteForceClosestPair(points).distance, pair.distance, 1e-10);
+        assertEquals(0, Metrics.getComparisons());
+        assertEquals(0, Metrics.getAllocations());
+    }
+
+    @Test
+    @DisplayName("Three-way and dual-pivot QuickSort on duplicate-heavy and adversarial inputs")
+    void testQuickSortPartitioningModes() {
+        int[][] inputs = {
+            {},
+            {7},
+            {5, 4, 3, 2, 1},
+            {Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1, 1},
+            ArrayUtils.generateRandomArray(10_000, 3),
+            ArrayUtils.generateRandomArray(10_000, 100),
+            ArrayUtils.generateRandomArray(10_000, 1_000_000),
+            ArrayUtils.generateWorstCaseArray(10_000),
+            new int[5000]
+        };
+
+        for (QuickSort.Partitioning partitioning : QuickSort.Partitioning.values()) {
+            for (int[] input : inputs) {
+                int[] arr = ArrayUtils.copyArray(input);
+                int[] expected = ArrayUtils.copyArray(input);
+                Arrays.sort(expected);
+
+                Metrics.reset();
+                QuickSort.sort(arr, partitioning);
+
+                assertArrayEquals(expected, arr, partitioning + " failed for n=" + input.length);
+                int bound = 2 * (int) Math.floor(Math.log(Math.max(2, input.length)) / Math.log(2)) + 5;
+                assertTrue(Metrics.getMaxRecursionDepth() <= bound,
+                    partitioning + " depth " + Metrics.getMaxRecursionDepth() + " exceeds " + bound);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Three-way QuickSort does linear work when all keys are equal")
+    void testThreeWayQuickSortAllEqual() {
+        int[] arr = new int[100_000];
+        Arrays.fill(arr, 42);
+
+        MetricsContext metrics = new MetricsContext();
+        QuickSort.sort(arr, QuickSort.Partitioning.THREE_WAY, metrics);
+
+        assertTrue(metrics.getComparisons() <= 2L * arr.length,
+            "Equal keys should be settled in a single pass, got " + metrics.getComparisons());
+    }
+
+    @Test
+    @DisplayName("Parallel introsort QuickSort matches Arrays.sort")
+    void testParallelQuickSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[][] inputs = {
+                {},
+                {3, 1, 2},
+                ArrayUtils.generateRandomArray(200_000, 2_000_000),
+                ArrayUtils.generateRandomArray(200_000, 8),
+                ArrayUtils.generateWorstCaseArray(200_000)
+            };
+            for (int[] input : inputs) {
+                int[] arr = ArrayUtils.copyArray(input);
+                int[] expected = ArrayUtils.copyArray(input);
+                Arrays.sort(expected);
+
+                MetricsContext metrics = new MetricsContext();
+                QuickSort.parallelSort(arr, pool, 1024, metrics);
+
+                assertArrayEquals(expected, arr, "Parallel QuickSort failed for n=" + input.length);
+                int bound = 2 * (int) Math.floor(Math.log(Math.max(2, input.length)) / Math.log(2)) + 5;
+                assertTrue(metrics.getMaxRecursionDepth() <= bound,
+                    "Depth " + metrics.getMaxRecursionDepth() + " exceeds introsort bound " + bound);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Heapsort fallback sorts subranges in place")
+    void testHeapSortSubrange() {
+        int[] arr = ArrayUtils.generateRandomArray(1000, 50);
+        int[] expected = ArrayUtils.copyArray(arr);
+        Arrays.sort(expected, 100, 900);
+
+        ArrayUtils.heapSort(arr, 100, 899, new MetricsContext());
+
+        assertArrayEquals(expected, arr, "Only arr[100..899] should be sorted");
+    }
+
+    @Test
+    @DisplayName("Object MergeSort is stable and matches Arrays.sort")
+    void testObjectMergeSortStable() {
+        int size = 20_000;
+        Integer[][] records = new Integer[size][];
+        for (int i = 0; i < size; i++) {
+            records[i] = new Integer[]{(int) (Math.random() * 50), i}; // {key, original position}
+        }
+        Comparator<Integer[]> byKey = Comparator.comparingInt(r -> r[0]);
+
+        Integer[][] expected = records.clone();
+        Arrays.sort(expected, byKey); // TimSort is stable, so this is the reference order
+
+        Integer[][] sorted = records.clone();
+        MergeSort.sort(sorted, byKey, new Integer[size][]);
+        assertArrayEquals(expected, sorted, "Comparator sort must be stable");
+
+        Integer[][] byDouble = records.clone();
+        MergeSort.sortByDoubleKey(byDouble, r -> r[0]);
+        assertArrayEquals(expected, byDouble, "Double-key sort must be stable");
+
+        Integer[][] byLong = records.clone();
+        MergeSort.sortByLongKey(byLong, r -> r[0]);
+        assertArrayEquals(expected, byLong, "Long-key sort must be stable");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            MergeSort.sort(new Integer[4], Comparator.naturalOrder(), new Integer[3]));
+    }
+
+    @Test
+    @DisplayName("Object MergeSort adapts to presorted and reversed runs")
+    void testObjectMergeSortAdaptive() {
+        int size = 100_000;
+        Integer[] ascending = new Integer[size];
+        Integer[] descending = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ascending[i] = i;
+            descending[i] = size - i;
+        }
+
+        MetricsContext metrics = new MetricsContext();
+        MergeSort.sort(ascending, Comparator.naturalOrder(), null, metrics);
+        assertTrue(metrics.getComparisons() < 2L * size, "Sorted input should be a single run");
+
+        metrics.reset();
+        MergeSort.sort(descending, Comparator.naturalOrder(), null, metrics);
+        assertTrue(metrics.getComparisons() < 2L * size, "Reversed input should be a single run");
+        for (int i = 1; i < size; i++) {
+            assertTrue(descending[i - 1] < descending[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Pooled and caller-scratch MergeSort allocate nothing in steady state")
+    void testMergeSortScratchReuse() {
+        ScratchPool.local().clear();
+        MetricsContext metrics = new MetricsContext();
+
+        for (int round = 0; round < 10; round++) {
+            int[] arr = ArrayUtils.generateRandomArray(3000 + round * 100, 100_000);
+            int[] expected = ArrayUtils.copyArray(arr);
+            Arrays.sort(expected);
+
+            MergeSort.sortPooled(arr, metrics);
+            assertArrayEquals(expected, arr);
+        }
+        // All sizes share the 4096 size class: one miss, then hits only
+        assertEquals(1, metrics.getCounter(MetricsCounter.POOL_MISSES));
+        assertEquals(9, metrics.getCounter(MetricsCounter.POOL_HITS));
+        assertEquals(4096, metrics.getAllocations());
+
+        metrics.reset();
+        int[] scratch = new int[5000];
+        int[] arr = ArrayUtils.generateRandomArray(5000, 100_000);
+        MergeSort.sortWithScratch(arr, scratch, metrics);
+        assertTrue(ArrayUtils.isSorted(arr));
+        assertEquals(0, metrics.getAllocations(), "Caller-owned scratch must not allocate");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            MergeSort.sortWithScratch(new int[10], new int[9]));
+        int[] aliased = new int[10];
+        assertThrows(IllegalArgumentException.class, () -> MergeSort.sortWithScratch(aliased, aliased));
+
+        // Object sorts: the run table and index buffers come from the pool once it is warm
+        Integer[] objects = new Integer[5000];
+        Integer[] objectScratch = new Integer[5000];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = (i * 7919) % 5003;
+            }
+            metrics.reset();
+            MergeSort.sort(objects, Comparator.naturalOrder(), objectScratch, metrics);
+            for (int i = 1; i < objects.length; i++) {
+                assertTrue(objects[i - 1] <= objects[i]);
+            }
+            metrics.reset();
+            MergeSort.sortByDoubleKey(objects, v -> -v, metrics);
+            assertEquals(5002, (int) objects[0]);
+        }
+        assertEquals(0, metrics.getCounter(MetricsCounter.POOL_MISSES));
+        // Only the extracted keys and their aux array remain
+        assertEquals(2 * 5000, metrics.getAllocations());
+        assertThrows(IllegalArgumentException.class, () ->
+            MergeSort.sort(objects, Comparator.naturalOrder(), objects));
+    }
+
+    @Test
+    @DisplayName("Bottom-up MergeSort matches Arrays.sort across tile boundaries")
+    void testBottomUpMergeSort() {
+        // pom.xml reruns this test with a cutoff that is not a power of two
+        for (int size : new int[]{0, 1, 2, 15, 16, 17, 100, 1000, 4097, 32_769, 40_000, 100_003}) {
+            for (int blockSize : new int[]{16, 64, 1 << 15}) {
+                int[] arr = ArrayUtils.generateRandomArray(size, size + 1);
+                int[] expected = ArrayUtils.copyArray(arr);
+                Arrays.sort(expected);
+
+                MergeSort.sortBottomUp(arr, blockSize, new MetricsContext());
+
+                assertArrayEquals(expected, arr,
+                    String.format("Bottom-up failed for n=%d, block=%d", size, blockSize));
+            }
+
+            int[] arr = ArrayUtils.generateRandomArray(size, size + 1);
+            int[] expected = ArrayUtils.copyArray(arr);
+            Arrays.sort(expected);
+            MergeSort.sortBottomUp(arr);
+            assertArrayEquals(expected, arr, "Default block failed for n=" + size);
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+            MergeSort.sortBottomUp(new int[10], 48, new MetricsContext()));
+    }
+
+    @Test
+    @DisplayName("Structure-of-arrays ClosestPair returns indices of a closest pair")
+    void testClosestPairSoA() {
+        for (int size : new int[]{2, 3, 4, 10, 100, 1000, 5000}) {
+            ClosestPair.Point[] points = ClosestPair.generateRandomPoints(size, 1000.0);
+            double[] xs = new double[size];
+            double[] ys = new double[size];
+            for (int i = 0; i < size; i++) {
+                xs[i] = points[i].x;
+                ys[i] = points[i].y;
+            }
+
+            MetricsContext metrics = new MetricsContext();
+            int[] pair = ClosestPair.findClosestPair(xs, ys, metrics);
+
+            assertTrue(pair[0] < pair[1]);
+            double distance = points[pair[0]].distanceTo(points[pair[1]]);
+            assertEquals(bruteForceClosestPair(points).distance, distance, 1e-10,
+                "SoA closest pair failed for size " + size);
+            assertTrue(metrics.getAllocations() <= 8L * size, "Only up-front buffers should be allocated");
+        }
+
+        // Duplicates and points sharing an x coordinate
+        double[] xs = {5, 1, 5, 5, 3, 1};
+        double[] ys = {9, 0, 2, 7, 4, 6};
+        assertArrayEquals(new int[]{0, 3}, ClosestPair.findClosestPair(xs, ys));
+        assertArrayEquals(new int[]{1, 2},
+            ClosestPair.findClosestPair(new double[]{0, 1, 1}, new double[]{0, 5, 5}));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            ClosestPair.findClosestPair(new double[]{1, 2}, new double[]{1}));
+        assertThrows(IllegalArgumentException.class, () ->
+            ClosestPair.findClosestPair(new double[]{1}, new double[]{1}));
+    }
+
+    @Test
+    @DisplayName("Parallel ClosestPair matches the sequential result")
+    void testParallelClosestPair() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int size : new int[]{2, 3, 50, 1000, 20_000}) {
+                ClosestPair.Point[] points = ClosestPair.generateRandomPoints(size, 1000.0);
+                double expected = ClosestPair.findClosestPair(points).distance;
+
+                MetricsContext context = new MetricsContext();
+                ClosestPair.PointPair pair = ClosestPair.findClosestPairParallel(points, pool, 16, context);
+                assertEquals(expected, pair.distance, 1e-10, "Parallel closest pair failed for size " + size);
+                assertTrue(context.getComparisons() > 0);
+
+                assertEquals(expected, ClosestPair.findClosestPairParallel(points, pool).distance, 1e-10);
+            }
+
+            // Integer coordinates: many points share an x value, some share both coordinates
+            java.util.Random random = new java.util.Random(17);
+            for (int distinctX : new int[]{1, 3, 10, 200}) {
+                ClosestPair.Point[] points = new ClosestPair.Point[5000];
+                for (int i = 0; i < points.length; i++) {
+                    points[i] = new ClosestPair.Point(random.nextInt(distinctX), random.nextInt(1_000_000));
+                }
+                double expected = ClosestPair.findClosestPair(points, ClosestPair.Strategy.GRID).distance;
+                assertEquals(expected, ClosestPair.findClosestPairParallel(points, pool, 16, new MetricsContext())
+                    .distance, 1e-10, "Parallel closest pair failed for " + distinctX + " distinct x values");
+                assertEquals(expected, ClosestPair.findClosestPair(points).distance, 1e-10);
+            }
+
+            assertThrows(IllegalArgumentException.class, () ->
+                ClosestPair.findClosestPairParallel(new ClosestPair.Point[1], pool));
+            assertThrows(IllegalArgumentException.class, () ->
+                ClosestPair.findClosestPairParallel(ClosestPair.generateRandomPoints(10, 1.0), pool, 3,
+                    new MetricsContext()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("k closest pairs and all nearest neighbors match brute force")
+    void testKClosestPairsAndNearestNeighbors() {
+        for (int size : new int[]{2, 3, 7, 100, 1500}) {
+            ClosestPair.Point[] points = ClosestPair.generateRandomPoints(size, 1000.0);
+
+            // Brute force: every pairwise distance, sorted, and each point's nearest distance
+            int pairCount = size * (size - 1) / 2;
+            double[] allDistances = new double[pairCount];
+            double[] nearestDistance = new double[size];
+            Arrays.fill(nearestDistance, Double.MAX_VALUE);
+            int p = 0;
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    double d = points[i].distanceTo(points[j]);
+                    allDistances[p++] = d;
+                    nearestDistance[i] = Math.min(nearestDistance[i], d);
+                    nearestDistance[j] = Math.min(nearestDistance[j], d);
+                }
+            }
+            Arrays.sort(allDistances);
+
+            for (int k : new int[]{1, Math.min(10, pairCount), pairCount}) {
+                ClosestPair.PointPair[] pairs = ClosestPair.findKClosestPairs(points, k, new MetricsContext());
+                assertEquals(k, pairs.length);
+                for (int i = 0; i < k; i++) {
+                    assertEquals(allDistances[i], pairs[i].distance, 1e-9, "Pair " + i + " of k=" + k);
+                }
+            }
+
+            int[] nearest = ClosestPair.allNearestNeighbors(points);
+            for (int i = 0; i < size; i++) {
+                assertNotEquals(i, nearest[i]);
+                assertEquals(nearestDistance[i], points[i].distanceTo(points[nearest[i]]), 1e-9,
+                    "Nearest neighbor of point " + i + " for size " + size);
+            }
+        }
+
+        // Duplicates: each copy's nearest neighbor is its twin
+        int[] nearest = ClosestPair.allNearestNeighbors(new double[]{0, 5, 0, 5}, new double[]{0, 5, 0, 5});
+        assertArrayEquals(new int[]{2, 3, 0, 1}, nearest);
+
+        ClosestPair.Point[] three = ClosestPair.generateRandomPoints(3, 1.0);
+        assertThrows(IllegalArgumentException.class, () -> ClosestPair.findKClosestPairs(three, 4));
+        assertThrows(IllegalArgumentException.class, () -> ClosestPair.findKClosestPairs(three, 0));
+    }
+
+    @Test
+    @DisplayName("Grid and auto ClosestPair strategies match divide-and-conquer")
+    void testClosestPairGridStrategy() {
+        java.util.Random random = new java.util.Random(42);
+        for (int size : new int[]{2, 3, 10, 1000, 5000, 20_000}) {
+            for (int shape = 0; shape < 3; shape++) {
+                double[] xs = new double[size];
+                double[] ys = new double[size];
+                for (int i = 0; i < size; i++) {
+                    if (shape == 0) {         // uniform
+                        xs[i] = random.nextDouble() * 1000;
+                        ys[i] = random.nextDouble() * 1000;
+                    } else if (shape == 1) {  // collinear
+                        xs[i] = random.nextDouble() * 1000;
+                        ys[i] = -3 * xs[i];
+                    } else {                  // tight clumps far apart, with repeated coordinates
+                        int clump = random.nextInt(4);
+                        xs[i] = clump * 1e6 + random.nextInt(100) * 0.5;
+                        ys[i] = clump * 1e6 + random.nextInt(100) * 0.25;
+                    }
+                }
+
+                int[] reference = ClosestPair.findClosestPair(xs, ys);
+                double expected = Math.hypot(xs[reference[0]] - xs[reference[1]],
+                    ys[reference[0]] - ys[reference[1]]);
+                for (ClosestPair.Strategy strategy : ClosestPair.Strategy.values()) {
+                    int[] pair = ClosestPair.findClosestPair(xs, ys, strategy, new MetricsContext());
+                    assertTrue(pair[0] < pair[1]);
+                    double distance = Math.hypot(xs[pair[0]] - xs[pair[1]], ys[pair[0]] - ys[pair[1]]);
+                    assertEquals(expected, distance, 1e-9,
+                        strategy + " failed for size " + size + ", shape " + shape);
+                }
+            }
+        }
+
+        ClosestPair.Point[] points = ClosestPair.generateRandomPoints(3000, 1000.0);
+        assertEquals(bruteForceClosestPair(points).distance,
+            ClosestPair.findClosestPair(points, ClosestPair.Strategy.GRID).distance, 1e-10);
+    }
+
+    @Test
+    @DisplayName("N-dimensional ClosestPair matches brute force for every metric and strategy")
+    void testClosestPairND() {
+        java.util.Random random = new java.util.Random(7);
+        for (int dims : new int[]{1, 2, 3, 5, 8}) {
+            for (int size : new int[]{2, 3, 50, 1500}) {
+                double[] coords = new double[size * dims];
+                for (int i = 0; i < coords.length; i++) {
+                    // Coarse values in the last case force ties and repeated coordinates
+                    coords[i] = size == 1500 ? random.nextInt(40) : random.nextDouble() * 100;
+                }
+
+                for (ClosestPairND.StandardMetric metric : ClosestPairND.StandardMetric.values()) {
+                    double expected = Double.POSITIVE_INFINITY;
+                    for (int i = 0; i < size; i++) {
+                        for (int j = i + 1; j < size; j++) {
+                            expected = Math.min(expected, ClosestPairND.distance(coords, dims, metric, i, j));
+                        }
+                    }
+                    for (ClosestPair.Strategy strategy : ClosestPair.Strategy.values()) {
+                        MetricsContext metrics = new MetricsContext();
+                        int[] pair = ClosestPairND.findClosestPair(coords, dims, metric, strategy, metrics);
+                        assertTrue(pair[0] < pair[1]);
+                        double distance = ClosestPairND.distance(coords, dims, metric, pair[0], pair[1]);
+                        assertEquals(expected, distance, 1e-9,
+                            metric + "/" + strategy + " failed for dims " + dims + ", size " + size);
+                        assertTrue(metrics.getComparisons() > 0);
+                    }
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+            ClosestPairND.findClosestPair(new double[5], 2, ClosestPairND.StandardMetric.EUCLIDEAN));
+        assertThrows(IllegalArgumentException.class, () ->
+            ClosestPairND.findClosestPair(new double[3], 3, ClosestPairND.StandardMetric.MANHATTAN));
+
+        // A forced grid is capped in dimensions; past 3^19 cells the neighborhood count overflowed
+        // and the grid returned a wrong pair instead of failing
+        ClosestPairND.Metric euclidean = ClosestPairND.StandardMetric.EUCLIDEAN;
+        double[] wide = new double[40 * 20];
+        for (int i = 0; i < wide.length; i++) {
+            wide[i] = random.nextDouble();
+        }
+        assertThrows(IllegalArgumentException.class, () ->
+            ClosestPairND.findClosestPair(wide, 20, euclidean, ClosestPair.Strategy.GRID, new MetricsContext()));
+        int[] pair = ClosestPairND.findClosestPair(wide, 20, euclidean);
+        double expected = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 40; i++) {
+            for (int j = i + 1; j < 40; j++) {
+                expected = Math.min(expected, ClosestPairND.distance(wide, 20, euclidean, i, j));
+            }
+        }
+        assertEquals(expected, ClosestPairND.distance(wide, 20, euclidean, pair[0], pair[1]));
+    }
+
+    @Test
+    @DisplayName("Partition and merge kernels match the scalar contract, with or without SIMD support")
+    void testSimdKernels() {
+        java.util.Random random = new java.util.Random(11);
+        for (int size : new int[]{1, 63, 64, 65, 1000, 4099}) {
+            for (int range : new int[]{3, size * 10}) {
+                int[] arr = ArrayUtils.generateRandomArray(size, range);
+                int[] sorted = ArrayUtils.copyArray(arr);
+                Arrays.sort(sorted);
+
+                int low = size / 7, high = size - 1;
+                int pivotIndex = low + random.nextInt(high - low + 1);
+                int pivotValue = arr[pivotIndex];
+                int[] expected = Arrays.copyOfRange(arr, low, high + 1);
+                Arrays.sort(expected);
+
+                int p = SimdKernels.isAvailable() && high - low >= SimdKernels.MIN_LENGTH
+                    ? SimdKernels.partition(arr, low, high, pivotIndex, new MetricsContext())
+                    : ArrayUtils.partition(arr, low, high, pivotIndex, new MetricsContext());
+                assertEquals(pivotValue, arr[p]);
+                for (int i = low; i < p; i++) assertTrue(arr[i] < pivotValue);
+                for (int i = p + 1; i <= high; i++) assertTrue(arr[i] >= pivotValue);
+                int[] partitioned = Arrays.copyOfRange(arr, low, high + 1);
+                Arrays.sort(partitioned);
+                assertArrayEquals(expected, partitioned, "Partition lost elements for n=" + size);
+
+                int[] merged = ArrayUtils.copyArray(arr);
+                MergeSort.sort(merged);
+                assertArrayEquals(sorted, merged);
+            }
+        }
+
+        // Uneven runs exercise the scalar finish after the vector loop
+        if (SimdKernels.isAvailable()) {
+            for (int[] lengths : new int[][]{{64, 64}, {64, 1000}, {999, 70}, {513, 511}}) {
+                int[] src = new int[lengths[0] + lengths[1]];
+                for (int i = 0; i < src.length; i++) src[i] = random.nextInt(500);
+                Arrays.sort(src, 0, lengths[0]);
+                Arrays.sort(src, lengths[0], src.length);
+                int[] dst = new int[src.length];
+                int split = lengths[0];
+                SimdKernels.merge(src, 0, split - 1, split, src.length - 1, dst, 0, new MetricsContext());
+                Arrays.sort(src);
+                assertArrayEquals(src, dst, "Merge failed for runs " + Arrays.toString(lengths));
+            }
+        }
+    }
+
     // Helper method for O(n²) brute force closest pair
     private ClosestPair.PointPair bruteForceClosestPair(ClosestPair.Point[] points) {
         double minDistance = Double.MAX_VALUE;
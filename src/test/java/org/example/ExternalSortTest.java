@@ -0,0 +1,143 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.ExternalSort;
+import org.example.utils.ArrayUtils;
+import org.example.utils.MetricsContext;
+import org.example.utils.MetricsCounter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+class ExternalSortTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("External int sort spills, merges in several passes and cleans up")
+    void testExternalIntSortMultiPass() throws IOException {
+        int[] values = ArrayUtils.generateRandomArray(200_000, Integer.MAX_VALUE);
+        values[0] = Integer.MIN_VALUE;
+        values[1] = -1;
+        Path input = writeInts(values);
+        Path output = tempDir.resolve("sorted.bin");
+
+        MetricsContext metrics = new MetricsContext();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // 64 KB budget over 4 workers gives ~100 runs, fan-in 4 forces several merge passes
+            ExternalSort.sortInts(input, output, 64 * 1024, 4, pool, metrics);
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readInts(output));
+
+        assertTrue(metrics.getCounter(MetricsCounter.SPILLED_RUNS) > 4);
+        assertTrue(metrics.getCounter(MetricsCounter.MERGE_PASSES) > 1);
+        assertTrue(metrics.getCounter(MetricsCounter.IO_BYTES_READ) >= 4L * values.length);
+        assertTrue(metrics.getCounter(MetricsCounter.IO_BYTES_WRITTEN) >= 4L * values.length);
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "Temporary runs should be deleted");
+        }
+    }
+
+    @Test
+    @DisplayName("External long sort matches Arrays.sort, including single-chunk input")
+    void testExternalLongSort() throws IOException {
+        Random random = new Random(7);
+        for (int size : new int[]{0, 1, 1000, 50_000}) {
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextLong();
+            }
+            Path input = tempDir.resolve("longs-" + size + ".bin");
+            ByteBuffer buffer = ByteBuffer.allocate(size * 8);
+            buffer.asLongBuffer().put(values);
+            Files.write(input, buffer.array());
+            Path output = tempDir.resolve("longs-" + size + "-sorted.bin");
+
+            ExternalSort.sortLongs(input, output, 32 * 1024, 8, ForkJoinPool.commonPool(), new MetricsContext());
+
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+            long[] actual = new long[size];
+            ByteBuffer.wrap(Files.readAllBytes(output)).asLongBuffer().get(actual);
+            assertArrayEquals(expected, actual, "External long sort failed for n=" + size);
+        }
+    }
+
+    @Test
+    @DisplayName("Small budgets on wide pools use fewer workers instead of tiny runs")
+    void testExternalSortSmallBudget() throws IOException {
+        int[] values = ArrayUtils.generateRandomArray(20_000, Integer.MAX_VALUE);
+        Path input = writeInts(values);
+        Path output = tempDir.resolve("sorted.bin");
+
+        MetricsContext metrics = new MetricsContext();
+        ForkJoinPool pool = new ForkJoinPool(16);
+        try {
+            // 16 KB cannot feed 16 workers, so a single one sorts 1536-element chunks
+            ExternalSort.sortInts(input, output, 16 * 1024, 8, pool, metrics);
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readInts(output));
+        // 80 KB of input in 12 KB chunks: 14 runs, then 2 from the first merge pass
+        assertTrue(metrics.getCounter(MetricsCounter.SPILLED_RUNS) <= 20,
+            "Spilled " + metrics.getCounter(MetricsCounter.SPILLED_RUNS) + " runs");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            ExternalSort.sortInts(input, output, 8 * 1024, 8, pool, new MetricsContext()));
+    }
+
+    @Test
+    @DisplayName("External sort rejects truncated input and bad configuration")
+    void testExternalSortValidation() throws IOException {
+        Path input = tempDir.resolve("odd.bin");
+        Files.write(input, new byte[6]);
+        Path output = tempDir.resolve("out.bin");
+
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sortInts(input, output));
+        assertThrows(IllegalArgumentException.class, () ->
+            ExternalSort.sortInts(input, output, 1 << 20, 1, ForkJoinPool.commonPool(), new MetricsContext()));
+
+        // Sorting onto the input file would truncate it while it is still being read
+        Path data = writeInts(new int[]{3, 1, 2});
+        Path alias = tempDir.resolve(".").resolve("input.bin");
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sortInts(data, data));
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sortInts(data, alias));
+        assertArrayEquals(new int[]{3, 1, 2}, readInts(data), "Input must be left intact");
+    }
+
+    private Path writeInts(int[] values) throws IOException {
+        Path path = tempDir.resolve("input.bin");
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        buffer.asIntBuffer().put(values);
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    private int[] readInts(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int[] values = new int[buffer.remaining() / 4];
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.ClosestPair;
+import org.example.algorithms.KdTree;
+import org.example.algorithms.MergeSort;
+import org.example.utils.MetricsContext;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+class KdTreeTest {
+
+    @Test
+    @DisplayName("Nearest, k-nearest and range queries match brute force for every build path")
+    void testQueriesMatchBruteForce() {
+        Random random = new Random(11);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int size : new int[]{1, 2, 7, 1000, 20_000}) {
+                double[] xs = new double[size];
+                double[] ys = new double[size];
+                for (int i = 0; i < size; i++) {
+                    // Coarse coordinates so ties on both axes are common
+                    xs[i] = random.nextInt(200);
+                    ys[i] = random.nextInt(200);
+                }
+
+                MetricsContext metrics = new MetricsContext();
+                KdTree[] trees = {
+                    new KdTree(xs, ys),
+                    KdTree.fromPresorted(xs, ys, MergeSort.argsort(xs), MergeSort.argsort(ys)),
+                    KdTree.parallelBuild(xs, ys, MergeSort.argsort(xs), MergeSort.argsort(ys), pool, metrics)
+                };
+                assertTrue(metrics.getComparisons() > 0 || size < 2);
+
+                for (int q = 0; q < 50; q++) {
+                    double qx = random.nextDouble() * 220 - 10;
+                    double qy = random.nextDouble() * 220 - 10;
+                    double[] distances = new double[size];
+                    for (int i = 0; i < size; i++) {
+                        distances[i] = Math.hypot(xs[i] - qx, ys[i] - qy);
+                    }
+                    double[] sortedDistances = distances.clone();
+                    Arrays.sort(sortedDistances);
+
+                    double minX = random.nextInt(200), maxX = minX + random.nextInt(60);
+                    double minY = random.nextInt(200), maxY = minY + random.nextInt(60);
+                    int expectedInRange = 0;
+                    for (int i = 0; i < size; i++) {
+                        if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) expectedInRange++;
+                    }
+
+                    for (KdTree tree : trees) {
+                        assertEquals(size, tree.size());
+                        assertEquals(sortedDistances[0], distances[tree.nearest(qx, qy)], 1e-12);
+
+                        int k = Math.min(size, 10);
+                        int[] knn = tree.kNearest(qx, qy, 10);
+                        assertEquals(k, knn.length);
+                        for (int i = 0; i < k; i++) {
+                            assertEquals(sortedDistances[i], distances[knn[i]], 1e-12, "Neighbor " + i);
+                        }
+
+                        int[] inRange = tree.range(minX, minY, maxX, maxY);
+                        assertEquals(expectedInRange, inRange.length);
+                        for (int id : inRange) {
+                            assertTrue(xs[id] >= minX && xs[id] <= maxX && ys[id] >= minY && ys[id] <= maxY);
+                        }
+                        assertEquals(inRange.length, Arrays.stream(inRange).distinct().count());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Tree built from Points answers in input indices; empty trees and bad input are handled")
+    void testPointsAndEdgeCases() {
+        ClosestPair.Point[] points = ClosestPair.generateRandomPoints(500, 100.0);
+        KdTree tree = new KdTree(points);
+        for (int i = 0; i < points.length; i += 50) {
+            assertEquals(0.0, points[tree.nearest(points[i].x, points[i].y)].distanceTo(points[i]));
+        }
+
+        KdTree empty = new KdTree(new double[0], new double[0]);
+        assertEquals(-1, empty.nearest(0, 0));
+        assertEquals(0, empty.kNearest(0, 0, 3).length);
+        assertEquals(0, empty.range(0, 0, 1, 1).length);
+
+        assertThrows(IllegalArgumentException.class, () -> new KdTree(new double[2], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> tree.kNearest(0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> tree.range(1, 0, 0, 1));
+
+        // Presorted orderings must be permutations that really are sorted
+        double[] xs = {3, 1, 2};
+        double[] ys = {1, 2, 3};
+        int[] byY = {0, 1, 2};
+        assertThrows(IllegalArgumentException.class,
+            () -> KdTree.fromPresorted(xs, ys, new int[]{1, 2, 2}, byY.clone()));
+        assertThrows(IllegalArgumentException.class,
+            () -> KdTree.fromPresorted(xs, ys, new int[]{1, 2, 3}, byY.clone()));
+        assertThrows(IllegalArgumentException.class,
+            () -> KdTree.fromPresorted(xs, ys, new int[]{0, 1, 2}, byY.clone()));
+        assertThrows(IllegalArgumentException.class,
+            () -> KdTree.fromPresorted(xs, ys, new int[]{1, 2, 0}, new int[]{2, 1, 0}));
+        assertEquals(1, KdTree.fromPresorted(xs, ys, new int[]{1, 2, 0}, byY.clone()).nearest(1, 2));
+    }
+}
@@ -0,0 +1,179 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.*;
+import org.example.utils.MetricsContext;
+import org.example.utils.SortingNetworks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+class PrimitiveSortTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    @DisplayName("long[] overloads match Arrays.sort")
+    void testLongSorts() {
+        for (int size : new int[]{0, 1, 2, 17, 1000, 50_000}) {
+            long[] input = new long[size];
+            for (int i = 0; i < size; i++) {
+                input[i] = (i % 3 == 0) ? random.nextInt(10) : random.nextLong();
+            }
+            long[] expected = input.clone();
+            Arrays.sort(expected);
+
+            long[] merged = input.clone();
+            MergeSort.sort(merged);
+            assertArrayEquals(expected, merged, "MergeSort long[] failed for n=" + size);
+
+            long[] quick = input.clone();
+            QuickSort.sort(quick);
+            assertArrayEquals(expected, quick, "QuickSort long[] failed for n=" + size);
+        }
+    }
+
+    @Test
+    @DisplayName("double[] overloads order NaN and -0.0 like Arrays.sort")
+    void testDoubleSortsSpecialValues() {
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            -Double.MIN_VALUE, Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int size : new int[]{0, 1, 9, 100, 20_000}) {
+            double[] input = new double[size];
+            for (int i = 0; i < size; i++) {
+                input[i] = (i % 4 == 0) ? specials[random.nextInt(specials.length)] : random.nextGaussian();
+            }
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+
+            double[] merged = input.clone();
+            MergeSort.sort(merged);
+            assertArrayEquals(expected, merged, "MergeSort double[] failed for n=" + size);
+
+            double[] quick = input.clone();
+            QuickSort.sort(quick);
+            assertArrayEquals(expected, quick, "QuickSort double[] failed for n=" + size);
+        }
+    }
+
+    @Test
+    @DisplayName("float[] overloads order NaN and -0.0 like Arrays.sort")
+    void testFloatSortsSpecialValues() {
+        float[] specials = {Float.NaN, -0.0f, 0.0f, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] input = new float[20_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (i % 4 == 0) ? specials[random.nextInt(specials.length)] : (float) random.nextGaussian();
+        }
+        float[] expected = input.clone();
+        Arrays.sort(expected);
+
+        float[] merged = input.clone();
+        MergeSort.sort(merged);
+        assertArrayEquals(expected, merged, "MergeSort float[] failed");
+
+        float[] quick = input.clone();
+        QuickSort.sort(quick);
+        assertArrayEquals(expected, quick, "QuickSort float[] failed");
+    }
+
+    @Test
+    @DisplayName("Argsort keeps payload in lockstep and is stable")
+    void testArgsortLockstep() {
+        int size = 10_000;
+        long[] keys = new long[size];
+        int[] payload = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(100); // many ties to exercise stability
+            payload[i] = i;
+        }
+        long[] original = keys.clone();
+
+        MergeSort.sort(keys, payload);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(original[payload[i]], keys[i], "Payload must follow its key");
+            if (i > 0) {
+                assertTrue(keys[i - 1] <= keys[i], "Keys must be sorted");
+                if (keys[i - 1] == keys[i]) {
+                    assertTrue(payload[i - 1] < payload[i], "Equal keys must keep input order");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("argsort returns sorting indices without mutating keys")
+    void testArgsortIndices() {
+        double[] keys = {3.5, Double.NaN, -0.0, 0.0, -1.0, 3.5};
+        double[] before = keys.clone();
+
+        int[] order = MergeSort.argsort(keys);
+
+        assertArrayEquals(new int[]{4, 2, 3, 0, 5, 1}, order);
+        assertArrayEquals(before, keys, "argsort must not reorder the caller's keys");
+
+        int[] intKeys = {5, 1, 4, 1};
+        assertArrayEquals(new int[]{1, 3, 2, 0}, MergeSort.argsort(intKeys));
+
+        float[] floatKeys = {3.5f, Float.NaN, -0.0f, 0.0f, -1.0f, 3.5f};
+        assertArrayEquals(order, MergeSort.argsort(floatKeys));
+        assertThrows(IllegalArgumentException.class, () -> MergeSort.argsort((float[]) null));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            MergeSort.sort(new long[3], new int[2]));
+    }
+
+    @Test
+    @DisplayName("Sorting networks sort every 0-1 input up to 16 elements, and median-of-5 finds the median")
+    void testSortingNetworks() {
+        // 0-1 principle: a comparator network that sorts every 0/1 input sorts every input
+        for (int n = 1; n <= SortingNetworks.MAX_SIZE; n++) {
+            int[] arr = new int[n + 2];
+            for (int bits = 0; bits < 1 << n; bits++) {
+                arr[0] = -1;
+                arr[n + 1] = -1;  // guards: the network must stay inside its range
+                for (int i = 0; i < n; i++) {
+                    arr[i + 1] = (bits >>> i) & 1;
+                }
+                SortingNetworks.sort(arr, 1, n);
+                int ones = Integer.bitCount(bits);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(i >= n - ones ? 1 : 0, arr[i + 1], "n=" + n + " input=" + bits);
+                }
+                assertEquals(-1, arr[0]);
+                assertEquals(-1, arr[n + 1]);
+            }
+        }
+
+        for (int n = 2; n <= SortingNetworks.MAX_SIZE; n++) {
+            MetricsContext metrics = new MetricsContext();
+            int[] arr = random.ints(n, -3, 3).toArray();
+            int[] expected = arr.clone();
+            Arrays.sort(expected);
+            SortingNetworks.sort(arr, 0, n - 1, metrics);
+            assertArrayEquals(expected, arr);
+            assertEquals(SortingNetworks.comparators(n), metrics.getComparisons());
+        }
+        assertEquals(63, SortingNetworks.comparators(16));
+        assertEquals(19, SortingNetworks.comparators(8));
+
+        for (int trial = 0; trial < 2000; trial++) {
+            int[] group = random.ints(7, 0, trial % 2 == 0 ? 4 : 1000).toArray();
+            int[] sorted = Arrays.copyOfRange(group, 1, 6);
+            Arrays.sort(sorted);
+            SortingNetworks.medianOf5(group, 1, new MetricsContext());
+            assertEquals(sorted[2], group[3]);
+            int[] after = Arrays.copyOfRange(group, 1, 6);
+            Arrays.sort(after);
+            assertArrayEquals(sorted, after, "median-of-5 must only permute its group");
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> SortingNetworks.sort(new int[17], 0, 16));
+        assertEquals(16, SortingNetworks.cutoff("no.such.property", 40));
+        assertEquals(2, SortingNetworks.cutoff("no.such.property", 0));
+    }
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.RadixSort;
+import org.example.utils.MetricsContext;
+import org.example.utils.MetricsCounter;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+class RadixSortTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    @DisplayName("Every int strategy and digit width matches Arrays.sort, negatives included")
+    void testIntRadixSort() {
+        for (int size : new int[]{0, 1, 2, 64, 65, 1000, 100_003}) {
+            for (int[] input : intInputs(size)) {
+                int[] expected = input.clone();
+                Arrays.sort(expected);
+
+                for (RadixSort.Strategy strategy : RadixSort.Strategy.values()) {
+                    int[] arr = input.clone();
+                    RadixSort.sort(arr, strategy, new MetricsContext());
+                    assertArrayEquals(expected, arr, strategy + " failed for n=" + size);
+                }
+                for (int bits : new int[]{8, 11, 16}) {
+                    int[] arr = input.clone();
+                    RadixSort.sortLsd(arr, bits, new MetricsContext());
+                    assertArrayEquals(expected, arr, bits + "-bit LSD failed for n=" + size);
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+            RadixSort.sortLsd(new int[4], 12, new MetricsContext()));
+        assertThrows(IllegalArgumentException.class, () -> RadixSort.sort((int[]) null));
+    }
+
+    @Test
+    @DisplayName("Every long strategy and digit width matches Arrays.sort, negatives included")
+    void testLongRadixSort() {
+        for (int size : new int[]{0, 1, 65, 1000, 100_003}) {
+            long[] wide = random.longs(size).toArray();
+            long[] narrow = random.longs(size, -50_000, 50_000).toArray();
+            for (long[] input : new long[][]{wide, narrow}) {
+                long[] expected = input.clone();
+                Arrays.sort(expected);
+
+                for (RadixSort.Strategy strategy : RadixSort.Strategy.values()) {
+                    long[] arr = input.clone();
+                    RadixSort.sort(arr, strategy, new MetricsContext());
+                    assertArrayEquals(expected, arr, strategy + " failed for n=" + size);
+                }
+                for (int bits : new int[]{8, 11, 16}) {
+                    long[] arr = input.clone();
+                    RadixSort.sortLsd(arr, bits, new MetricsContext());
+                    assertArrayEquals(expected, arr, bits + "-bit LSD failed for n=" + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Digits shared by every key are skipped and reported passes match the work done")
+    void testSkippedDigits() {
+        // Keys below 2^8: only the lowest 8-bit digit varies
+        int[] small = random.ints(10_000, 0, 256).toArray();
+        MetricsContext metrics = new MetricsContext();
+        RadixSort.sortLsd(small, 8, metrics);
+        assertEquals(1, metrics.getCounter(MetricsCounter.RADIX_PASSES));
+        // One scatter plus the copy back from the buffer
+        assertEquals(2 * 4L * small.length, metrics.getCounter(MetricsCounter.BYTES_MOVED));
+        assertEquals(0, metrics.getComparisons());
+
+        int[] random16 = random.ints(10_000).toArray();
+        metrics = new MetricsContext();
+        RadixSort.sortLsd(random16, 16, metrics);
+        assertEquals(2, metrics.getCounter(MetricsCounter.RADIX_PASSES));
+        assertEquals(2 * 4L * random16.length, metrics.getCounter(MetricsCounter.BYTES_MOVED));
+
+        // All keys equal: nothing moves at all
+        long[] constant = new long[5000];
+        Arrays.fill(constant, -7L);
+        metrics = new MetricsContext();
+        RadixSort.sort(constant, RadixSort.Strategy.MSD, metrics);
+        RadixSort.sort(constant, RadixSort.Strategy.LSD, metrics);
+        assertEquals(0, metrics.getCounter(MetricsCounter.RADIX_PASSES));
+        assertEquals(0, metrics.getCounter(MetricsCounter.BYTES_MOVED));
+    }
+
+    @Test
+    @DisplayName("Parallel histogram/scatter radix sort matches Arrays.sort")
+    void testParallelRadixSort() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int size : new int[]{10, 70_000, 300_001}) {
+                for (int[] input : intInputs(size)) {
+                    int[] expected = input.clone();
+                    Arrays.sort(expected);
+                    int[] arr = input.clone();
+                    MetricsContext metrics = new MetricsContext();
+                    RadixSort.parallelSort(arr, pool, 1000, metrics);
+                    assertArrayEquals(expected, arr, "Parallel radix failed for n=" + size);
+                }
+
+                long[] longs = random.longs(size).toArray();
+                long[] expected = longs.clone();
+                Arrays.sort(expected);
+                RadixSort.parallelSort(longs, pool);
+                assertArrayEquals(expected, longs);
+            }
+
+            assertThrows(IllegalArgumentException.class, () ->
+                RadixSort.parallelSort(new int[10], null));
+            assertThrows(IllegalArgumentException.class, () ->
+                RadixSort.parallelSort(new int[10], pool, 10, new MetricsContext()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Full-range, small-range around zero, and many duplicates
+    private int[][] intInputs(int size) {
+        return new int[][]{
+            random.ints(size).toArray(),
+            random.ints(size, -1000, 1000).toArray(),
+            random.ints(size, 0, 4).map(v -> v * 1_000_000 - 2_000_000).toArray()
+        };
+    }
+}
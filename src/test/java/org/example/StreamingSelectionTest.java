@@ -0,0 +1,300 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.algorithms.*;
+import org.example.utils.ArrayUtils;
+import org.example.utils.Metrics;
+import org.example.utils.MetricsContext;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+class StreamingSelectionTest {
+
+    @Test
+    @DisplayName("Streaming top-k matches the k largest values, for single adds, batches and merges")
+    void testStreamingTopK() {
+        int[] values = ArrayUtils.generateRandomArray(100_000, 1_000_000);
+        int k = 50;
+
+        int[] sorted = ArrayUtils.copyArray(values);
+        Arrays.sort(sorted);
+        int[] expected = new int[k];
+        for (int i = 0; i < k; i++) {
+            expected[i] = sorted[sorted.length - 1 - i];
+        }
+
+        StreamingTopK single = new StreamingTopK(k);
+        for (int value : values) {
+            single.add(value);
+        }
+        assertArrayEquals(expected, single.toSortedArray());
+        assertEquals(values.length, single.count());
+
+        // Batches select into a bounded buffer and report only to the instance's metrics
+        Metrics.reset();
+        MetricsContext metrics = new MetricsContext();
+        StreamingTopK batched = new StreamingTopK(k, metrics);
+        batched.addAll(values);
+        assertArrayEquals(expected, batched.toSortedArray());
+        assertEquals(values.length, batched.count());
+        assertTrue(metrics.getAllocations() <= 4L * k, "Batch buffer should stay O(k)");
+        assertEquals(0, Metrics.getComparisons(), "Batches must not touch the global counters");
+        assertEquals(0, Metrics.getAllocations());
+
+        // Ascending input beats the threshold every time, so the buffer refills repeatedly
+        StreamingTopK ascending = new StreamingTopK(k);
+        ascending.addAll(sorted);
+        ascending.addAll(new int[]{-1, -2});
+        assertArrayEquals(expected, ascending.toSortedArray());
+        assertEquals(sorted.length + 2, ascending.count());
+
+        // Two halves consumed independently, then merged
+        StreamingTopK left = new StreamingTopK(k);
+        StreamingTopK right = new StreamingTopK(k);
+        left.addAll(Arrays.copyOfRange(values, 0, values.length / 2));
+        right.addAll(Arrays.copyOfRange(values, values.length / 2, values.length));
+        left.merge(right);
+        assertArrayEquals(expected, left.toSortedArray());
+        assertEquals(values.length, left.count());
+    }
+
+    @Test
+    @DisplayName("Quantile sketch is exact before compaction and within rank error after")
+    void testQuantileSketchAccuracy() {
+        QuantileSketch small = new QuantileSketch(200);
+        int[] few = ArrayUtils.generateRandomArray(150, 10_000);
+        for (int value : few) {
+            small.add(value);
+        }
+        int[] fewSorted = ArrayUtils.copyArray(few);
+        Arrays.sort(fewSorted);
+        assertTrue(small.isExact());
+        assertEquals(fewSorted[74], small.quantile(0.5));
+        assertEquals(fewSorted[148], small.quantile(0.99));
+
+        int n = 200_000;
+        int[] values = ArrayUtils.generateRandomArray(n, 1_000_000);
+        int[] sorted = ArrayUtils.copyArray(values);
+        Arrays.sort(sorted);
+
+        QuantileSketch left = new QuantileSketch(200);
+        QuantileSketch right = new QuantileSketch(200);
+        for (int i = 0; i < n; i++) {
+            (i % 2 == 0 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+        assertEquals(n, left.count());
+        assertFalse(left.isExact());
+
+        for (double q : new double[]{0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            int estimate = left.quantile(q);
+            double trueRank = (double) upperBound(sorted, estimate) / n;
+            assertEquals(q, trueRank, 0.03, "Rank error too large at q=" + q);
+        }
+
+        // Merging a sketch into itself doubles every weight and leaves the ranks alone
+        left.merge(left);
+        assertEquals(2L * n, left.count());
+        for (double q : new double[]{0.1, 0.5, 0.9}) {
+            double trueRank = (double) upperBound(sorted, left.quantile(q)) / n;
+            assertEquals(q, trueRank, 0.03, "Rank error too large after self-merge at q=" + q);
+        }
+        small.merge(small);
+        assertEquals(300, small.count());
+        assertEquals(fewSorted[74], small.quantile(0.5));
+        assertThrows(IllegalArgumentException.class, () -> small.merge(null));
+    }
+
+    @Test
+    @DisplayName("Quantile queries report only to the sketch's own metrics and reuse their scratch")
+    void testQuantileSketchQueryMetrics() {
+        int[] values = ArrayUtils.generateRandomArray(50_000, 1_000_000);
+        MetricsContext metrics = new MetricsContext();
+        QuantileSketch sketch = new QuantileSketch(200, metrics);
+        QuantileSketch exact = new QuantileSketch(200, metrics);
+        for (int i = 0; i < values.length; i++) {
+            sketch.add(values[i]);
+            if (i < 100) {
+                exact.add(values[i]);
+            }
+        }
+
+        Metrics.reset();
+        for (QuantileSketch s : new QuantileSketch[]{sketch, exact}) {
+            s.quantile(0.5);
+            long allocated = metrics.getAllocations();
+            long compared = metrics.getComparisons();
+            s.quantile(0.9);
+            s.quantile(0.99);
+            assertEquals(allocated, metrics.getAllocations(), "Repeated queries should reuse scratch");
+            assertTrue(metrics.getComparisons() > compared);
+        }
+        assertEquals(0, Metrics.getComparisons(), "Queries must not touch the global counters");
+        assertEquals(0, Metrics.getAllocations());
+
+        int[] first = ArrayUtils.copyArray(values);
+        Arrays.sort(first, 0, 100);
+        assertEquals(first[49], exact.quantile(0.5));
+    }
+
+    @Test
+    @DisplayName("Windowed quantiles are exact over the most recent values")
+    void testWindowedQuantiles() {
+        WindowedQuantiles window = new WindowedQuantiles(1000);
+        int[] values = ArrayUtils.generateRandomArray(5000, 100_000);
+
+        for (int i = 0; i < values.length; i++) {
+            window.add(values[i]);
+            if (i == 499 || i == values.length - 1) {
+                int from = Math.max(0, i - 999);
+                int[] recent = Arrays.copyOfRange(values, from, i + 1);
+                Arrays.sort(recent);
+                assertEquals(recent[recent.length / 2 - 1 + (recent.length % 2)], window.quantile(0.5));
+                assertEquals(recent[recent.length - 1], window.quantile(1.0));
+                assertEquals(recent[0], window.quantile(0.0));
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> new WindowedQuantiles(10).quantile(0.5));
+    }
+
+    @Test
+    @DisplayName("selectMany returns every requested rank and leaves ranges between them grouped")
+    void testSelectMany() {
+        for (int size : new int[]{1, 5, 6, 100, 1000, 10_007}) {
+            for (int range : new int[]{4, size * 10}) {
+                int[] arr = ArrayUtils.generateRandomArray(size, range);
+                int[] sorted = ArrayUtils.copyArray(arr);
+                Arrays.sort(sorted);
+
+                int[] ks = {size * 99 / 100, size / 2, size / 10, size * 3 / 4, size / 4, size * 9 / 10, size / 2};
+                int[] partial = DeterministicSelect.partialOrder(arr, ks);
+                int[] values = DeterministicSelect.selectMany(arr, ks);
+
+                for (int i = 0; i < ks.length; i++) {
+                    assertEquals(sorted[ks[i]], values[i], "Rank " + ks[i] + " for n=" + size);
+                    assertEquals(sorted[ks[i]], partial[ks[i]]);
+                }
+
+                // Between p25 and p75 the partial order holds exactly the sorted slice
+                int[] middle = Arrays.copyOfRange(partial, size / 4, size * 3 / 4 + 1);
+                Arrays.sort(middle);
+                assertArrayEquals(Arrays.copyOfRange(sorted, size / 4, size * 3 / 4 + 1), middle);
+            }
+        }
+
+        assertEquals(0, DeterministicSelect.selectMany(new int[]{3, 1, 2}, new int[0]).length);
+        assertThrows(IllegalArgumentException.class, () ->
+            DeterministicSelect.selectMany(new int[]{1, 2, 3}, new int[]{0, 3}));
+        assertThrows(IllegalArgumentException.class, () -> DeterministicSelect.selectMany(null, new int[]{0}));
+    }
+
+    @Test
+    @DisplayName("Introselect agrees with median of medians on random, duplicate and ordered inputs")
+    void testIntroSelect() {
+        for (int size : new int[]{1, 6, 100, 601, 5000, 100_000}) {
+            int[][] inputs = {
+                ArrayUtils.generateRandomArray(size, size * 10),
+                ArrayUtils.generateRandomArray(size, 3),
+                ArrayUtils.generateWorstCaseArray(size),
+                new int[size]
+            };
+            for (int[] input : inputs) {
+                int[] sorted = ArrayUtils.copyArray(input);
+                Arrays.sort(sorted);
+                for (int k : new int[]{0, size / 3, size / 2, size - 1}) {
+                    int[] arr = ArrayUtils.copyArray(input);
+                    int value = DeterministicSelect.select(arr, k, DeterministicSelect.Strategy.INTROSELECT);
+                    assertEquals(sorted[k], value, "k=" + k + " for n=" + size);
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+            DeterministicSelect.select(new int[3], 3, DeterministicSelect.Strategy.INTROSELECT));
+    }
+
+    @Test
+    @DisplayName("Median of medians stays linear when most keys are equal")
+    void testSelectWithDuplicateKeys() {
+        int size = 50_000;
+        int[][] inputs = {new int[size], ArrayUtils.generateRandomArray(size, 3)};
+        for (int[] input : inputs) {
+            int[] sorted = ArrayUtils.copyArray(input);
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, size / 2, size - 1}) {
+                MetricsContext metrics = new MetricsContext();
+                int value = DeterministicSelect.select(ArrayUtils.copyArray(input), k,
+                    DeterministicSelect.Strategy.MEDIAN_OF_MEDIANS, metrics);
+                assertEquals(sorted[k], value, "k=" + k);
+                // A two-way partition sends every key equal to the pivot to one side, which
+                // made this quadratic with one recursion level per element
+                assertTrue(metrics.getComparisons() < 40L * size, "Comparisons: " + metrics.getComparisons());
+                assertTrue(metrics.getMaxRecursionDepth() < 64, "Depth: " + metrics.getMaxRecursionDepth());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Selection does not allocate on the heap")
+    void testSelectIsAllocationFree() {
+        int[] input = ArrayUtils.generateRandomArray(100_000, 1_000_000);
+        int[] sorted = ArrayUtils.copyArray(input);
+        Arrays.sort(sorted);
+
+        for (DeterministicSelect.Strategy strategy : DeterministicSelect.Strategy.values()) {
+            for (int k : new int[]{0, 12_345, 50_000, 99_999}) {
+                MetricsContext metrics = new MetricsContext();
+                int value = DeterministicSelect.select(ArrayUtils.copyArray(input), k, strategy, metrics);
+                assertEquals(sorted[k], value, strategy + " k=" + k);
+                assertEquals(0, metrics.getAllocations(), strategy + " should not allocate");
+                assertTrue(metrics.getComparisons() > 0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel selection matches sequential selection and leaves the input unchanged")
+    void testParallelSelect() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int size : new int[]{1, 100, 10_000, 200_003}) {
+                for (int range : new int[]{5, size * 10}) {
+                    int[] input = ArrayUtils.generateRandomArray(size, range);
+                    int[] original = ArrayUtils.copyArray(input);
+                    int[] sorted = ArrayUtils.copyArray(input);
+                    Arrays.sort(sorted);
+
+                    for (int k : new int[]{0, size / 4, size / 2, size - 1}) {
+                        MetricsContext metrics = new MetricsContext();
+                        int value = DeterministicSelect.parallelSelect(input, k, pool, 64, metrics);
+                        assertEquals(sorted[k], value, "k=" + k + " for n=" + size);
+                        assertTrue(size < 64 || metrics.getComparisons() > 0);
+                    }
+                    assertEquals(sorted[size / 2], DeterministicSelect.parallelSelect(input, size / 2, pool));
+                    assertArrayEquals(original, input, "Input must not be modified");
+                }
+            }
+
+            assertThrows(IllegalArgumentException.class, () ->
+                DeterministicSelect.parallelSelect(new int[10], 10, pool));
+            assertThrows(IllegalArgumentException.class, () ->
+                DeterministicSelect.parallelSelect(new int[10], 0, pool, 5, new MetricsContext()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int upperBound(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.algorithms;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+// Lives in the algorithms package to reach ClosestPair's package-private table sizing
+class ClosestPairGridTest {
+
+    @Test
+    @DisplayName("Grid table capacity stays a power of two with load <= 1/2 and never overflows")
+    void testGridCapacity() {
+        assertEquals(8, ClosestPair.gridCapacity(0));
+        assertEquals(8, ClosestPair.gridCapacity(4));
+        assertEquals(16, ClosestPair.gridCapacity(5));
+        for (int n = 1; n < 100_000; n = n * 3 + 1) {
+            int capacity = ClosestPair.gridCapacity(n);
+            assertEquals(1, Integer.bitCount(capacity), "n=" + n);
+            assertTrue(capacity >= 2L * n, "n=" + n);
+        }
+
+        // Past 2^29 points the unclamped expression wrapped negative
+        assertEquals(1 << 30, ClosestPair.gridCapacity(1 << 29));
+        assertEquals(1 << 30, ClosestPair.gridCapacity((1 << 29) + 1));
+        assertEquals(1 << 30, ClosestPair.gridCapacity((1 << 30) - 1));
+        assertThrows(IllegalArgumentException.class, () -> ClosestPair.gridCapacity(1 << 30));
+        assertThrows(IllegalArgumentException.class, () -> ClosestPair.gridCapacity(Integer.MAX_VALUE));
+    }
+}
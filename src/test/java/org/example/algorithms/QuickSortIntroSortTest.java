@@ -0,0 +1,76 @@
+package org.example.algorithms;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.utils.ArrayUtils;
+import org.example.utils.MetricsContext;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+// Lives in the algorithms package to reach QuickSort's package-private depth-limit overload
+class QuickSortIntroSortTest {
+
+    @Test
+    @DisplayName("An exhausted partitioning budget falls back to heapsort in both leaves and tasks")
+    void testHeapSortFallback() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[][] inputs = {
+                ArrayUtils.generateRandomArray(20_000, 1_000_000),
+                ArrayUtils.generateRandomArray(20_000, 7),
+                ArrayUtils.generateWorstCaseArray(20_000)
+            };
+            for (int[] input : inputs) {
+                int[] expected = ArrayUtils.copyArray(input);
+                Arrays.sort(expected);
+
+                // Budget 0: no partitioning at all, whether the range is a sequential leaf
+                // (threshold above n) or a parallel task (threshold far below n)
+                for (int threshold : new int[]{input.length + 1, 32}) {
+                    int[] arr = ArrayUtils.copyArray(input);
+                    MetricsContext metrics = new MetricsContext();
+                    QuickSort.parallelSort(arr, pool, threshold, 0, metrics);
+                    assertArrayEquals(expected, arr, "threshold=" + threshold);
+                    assertEquals(0, metrics.getMaxRecursionDepth(), "Heapsort should handle the whole range");
+                    assertTrue(metrics.getComparisons() > 0);
+                }
+
+                // Small budgets partition that many levels before heapsort takes over
+                for (int depthLimit : new int[]{1, 3}) {
+                    for (int threshold : new int[]{input.length + 1, 32}) {
+                        int[] arr = ArrayUtils.copyArray(input);
+                        MetricsContext metrics = new MetricsContext();
+                        QuickSort.parallelSort(arr, pool, threshold, depthLimit, metrics);
+                        assertArrayEquals(expected, arr, "depthLimit=" + depthLimit + " threshold=" + threshold);
+                        assertTrue(metrics.getMaxRecursionDepth() <= depthLimit,
+                            "Depth " + metrics.getMaxRecursionDepth() + " exceeds budget " + depthLimit);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Three-argument parallelSort matches MergeSort's overload set")
+    void testThresholdOverload() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            int[] arr = ArrayUtils.generateRandomArray(50_000, 100_000);
+            int[] expected = ArrayUtils.copyArray(arr);
+            Arrays.sort(expected);
+            QuickSort.parallelSort(arr, pool, 1024);
+            assertArrayEquals(expected, arr);
+
+            assertThrows(IllegalArgumentException.class, () -> QuickSort.parallelSort(new int[4], pool, 16));
+            assertThrows(IllegalArgumentException.class, () -> QuickSort.parallelSort(new int[4], null, 1024));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}